@@ -0,0 +1,21 @@
+package com.football.RomanianFootballBackend.Controller;
+
+import com.football.RomanianFootballBackend.Service.AdminChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/admin/events")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class AdminEventsController {
+    @Autowired
+    private AdminChangeFeed adminChangeFeed;
+
+    // Browsers send Last-Event-ID by themselves when an EventSource reconnects
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return adminChangeFeed.subscribe(lastEventId);
+    }
+}
@@ -0,0 +1,54 @@
+package com.football.RomanianFootballBackend.Controller;
+
+import com.football.RomanianFootballBackend.Service.CartPurgeService;
+import com.football.RomanianFootballBackend.Service.CartService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/carts")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class CartAdminController {
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartPurgeService cartPurgeService;
+
+    // Carts whose stored total no longer matches their lines, without changing anything
+    @GetMapping("/total-drift")
+    public ResponseEntity<?> getTotalDrift() {
+        return ResponseEntity.ok(cartService.findTotalDrift());
+    }
+
+    // Recomputes the drifted totals from the lines and returns what they were
+    @PostMapping("/reconcile-totals")
+    public ResponseEntity<?> reconcileTotals() {
+        try {
+            return ResponseEntity.ok(cartService.reconcileTotals());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error reconciling cart totals: " + e.getMessage());
+        }
+    }
+
+    // Empties the stale carts now instead of waiting for the scheduled run
+    @PostMapping("/purge")
+    public ResponseEntity<?> purge() {
+        try {
+            CartPurgeService.PurgeRun run = cartPurgeService.purgeNow();
+            if (run == null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("A cart purge is already running");
+            }
+            return ResponseEntity.ok(run);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error purging carts: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/purge/stats")
+    public ResponseEntity<?> getPurgeStats() {
+        return ResponseEntity.ok(cartPurgeService.getStats());
+    }
+}
@@ -1,12 +1,13 @@
 package com.football.RomanianFootballBackend.Controller;
 
 import com.football.RomanianFootballBackend.DTO.AddToCartDTO;
+import com.football.RomanianFootballBackend.DTO.CartBatchDTO;
 import com.football.RomanianFootballBackend.DTO.CartItemDTO;
 import com.football.RomanianFootballBackend.Entity.Cart;
 import com.football.RomanianFootballBackend.Entity.CartItems;
 import com.football.RomanianFootballBackend.Entity.ProductPhotos;
-import com.football.RomanianFootballBackend.Service.CartItemsService;
 import com.football.RomanianFootballBackend.Service.CartService;
+import com.football.RomanianFootballBackend.Service.CartStore;
 import com.football.RomanianFootballBackend.Service.ProductPhotosService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -22,7 +23,7 @@ public class CartController {
     private CartService cartService;
 
     @Autowired
-    private CartItemsService cartItemsService;
+    private CartStore cartStore;
 
     @GetMapping
     public ResponseEntity<?> getAllCarts() {
@@ -47,12 +48,7 @@ public class CartController {
     @GetMapping("/user/{userId}/items")
 public ResponseEntity<?> getCartItemsByUserId(@PathVariable Integer userId) {
     try {
-        Cart cart = cartService.getCartByUserId(userId);
-        if (cart == null) {
-            return ResponseEntity.notFound().build();
-        }
-
-        List<CartItemDTO> cartItems = cartItemsService.getCartItemsByCartId(cart.getId());
+        List<CartItemDTO> cartItems = cartStore.getItemsByUserId(userId);
         return ResponseEntity.ok(cartItems);
     } catch (Exception e) {
         return ResponseEntity.badRequest().body(e.getMessage());
@@ -67,15 +63,26 @@ public ResponseEntity<?> getCartItemsByUserId(@PathVariable Integer userId) {
     @PostMapping("/add")
     public ResponseEntity<?> addToCart(@RequestBody AddToCartDTO addToCartDTO) {
         try {
-            return ResponseEntity.ok(cartService.addItemToCart(addToCartDTO));
+            return ResponseEntity.ok(cartStore.add(addToCartDTO));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    // Adds, quantity changes and removals in one round trip; replies with the whole cart afterwards
+    @PostMapping("/{id}/batch")
+    public ResponseEntity<?> applyBatch(@PathVariable Integer id, @RequestBody CartBatchDTO batch) {
+        try {
+            return ResponseEntity.ok(cartStore.apply(id, batch.getOperations()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error updating cart: " + e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateCart(@PathVariable int id, @RequestBody Cart cart) {
         try {
+            cartStore.detach(id);
             Cart updatedCart = cartService.updateCart(id, cart);
             if (updatedCart != null) {
                 return ResponseEntity.ok(updatedCart);
@@ -90,6 +97,7 @@ public ResponseEntity<?> getCartItemsByUserId(@PathVariable Integer userId) {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteCart(@PathVariable int id) {
         try {
+            cartStore.detach(id);
             cartService.deleteCart(id);
             return ResponseEntity.ok("Cart deleted successfully");
         } catch (Exception e) {
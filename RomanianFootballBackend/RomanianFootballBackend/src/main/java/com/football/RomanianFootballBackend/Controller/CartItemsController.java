@@ -2,6 +2,7 @@ package com.football.RomanianFootballBackend.Controller;
 
 import com.football.RomanianFootballBackend.Entity.CartItems;
 import com.football.RomanianFootballBackend.Service.CartItemsService;
+import com.football.RomanianFootballBackend.Service.CartStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +16,10 @@ public class CartItemsController {
     @Autowired
     private CartItemsService cartItemsService;
 
+    // These endpoints change cart_items directly, so the cart store writes out and lets go of the cart first
+    @Autowired
+    private CartStore cartStore;
+
     @GetMapping
     public ResponseEntity<?> getAllCartItems() {
         return ResponseEntity.ok(cartItemsService.getAllCartItems());
@@ -27,6 +32,9 @@ public class CartItemsController {
 
     @PostMapping
     public ResponseEntity<?> addCartItems(@RequestBody CartItems cartItems) {
+        if (cartItems.getCart() != null) {
+            cartStore.detach(cartItems.getCart().getId());
+        }
         return ResponseEntity.ok(cartItemsService.addCartItems(cartItems));
     }
 
@@ -37,6 +45,7 @@ public class CartItemsController {
             if (existingItem == null) {
                 return ResponseEntity.notFound().build();
             }
+            cartStore.detach(existingItem.getCart().getId());
 
             existingItem.setQuantity(request.getQuantity());
             CartItems updatedItem = cartItemsService.updateCartItems(id, existingItem);
@@ -54,6 +63,7 @@ public class CartItemsController {
             if (item == null) {
                 return ResponseEntity.notFound().build();
             }
+            cartStore.detach(item.getCart().getId());
 
             cartItemsService.deleteCartItems(id);
             return ResponseEntity.ok().body(Map.of(
@@ -0,0 +1,36 @@
+package com.football.RomanianFootballBackend.Controller;
+
+import com.football.RomanianFootballBackend.Service.CatalogImportService;
+import com.football.RomanianFootballBackend.Service.DataFormat;
+import com.football.RomanianFootballBackend.Service.ProductCatalogCache;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/catalog")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class CatalogAdminController {
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(productCatalogCache.getStats());
+    }
+
+    // The body is read as a stream, so feeds of any size load with constant memory
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<?> importCatalog(HttpServletRequest request) {
+        try {
+            DataFormat format = DataFormat.of(request.getContentType());
+            return ResponseEntity.ok(catalogImportService.importCatalog(request.getInputStream(), format));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error importing catalog: " + e.getMessage());
+        }
+    }
+}
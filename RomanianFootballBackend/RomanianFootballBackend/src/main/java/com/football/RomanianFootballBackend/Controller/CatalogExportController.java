@@ -0,0 +1,52 @@
+package com.football.RomanianFootballBackend.Controller;
+
+import com.football.RomanianFootballBackend.Service.CatalogExportService;
+import com.football.RomanianFootballBackend.Service.DataFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.function.BiConsumer;
+
+@RestController
+@RequestMapping("/api/admin/export")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class CatalogExportController {
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @GetMapping("/products")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "csv") String format) {
+        return export("products", format, catalogExportService::exportProducts);
+    }
+
+    @GetMapping("/inventory")
+    public ResponseEntity<StreamingResponseBody> exportInventory(@RequestParam(defaultValue = "csv") String format) {
+        return export("inventory", format, catalogExportService::exportInventory);
+    }
+
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "csv") String format) {
+        return export("orders", format, catalogExportService::exportOrders);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> handleBadFormat(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body("Error exporting: " + e.getMessage());
+    }
+
+    // The body is written after the handler returns, on an async thread, straight to the response
+    private ResponseEntity<StreamingResponseBody> export(String name, String format,
+                                                         BiConsumer<DataFormat, OutputStream> exporter) {
+        DataFormat dataFormat = DataFormat.of(format);
+        String filename = name + "." + dataFormat.extension();
+        return ResponseEntity.ok()
+                .contentType(dataFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(out -> exporter.accept(dataFormat, out));
+    }
+}
@@ -0,0 +1,19 @@
+package com.football.RomanianFootballBackend.Controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    // Sets the ETag and answers 304 when the client already holds it; callers must then write nothing
+    static boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        // Let browsers keep the body but always revalidate; otherwise Spring Security would send no-store
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        return new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+}
@@ -0,0 +1,40 @@
+package com.football.RomanianFootballBackend.Controller;
+
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.Service.HotSkuInventory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/inventory/hot-skus")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class InventoryAdminController {
+    @Autowired
+    private HotSkuInventory hotSkuInventory;
+
+    @GetMapping
+    public ResponseEntity<?> getHotSkus() {
+        return ResponseEntity.ok(hotSkuInventory.getHotSkus());
+    }
+
+    // Moves a SKU's stock into in-memory counters, e.g. ahead of a kit launch
+    @PostMapping("/{productId}/{size}")
+    public ResponseEntity<?> enableHotSku(@PathVariable Integer productId, @PathVariable ProductInventory.Size size) {
+        try {
+            return ResponseEntity.ok(hotSkuInventory.enable(productId, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error enabling hot SKU: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{productId}/{size}")
+    public ResponseEntity<?> disableHotSku(@PathVariable Integer productId, @PathVariable ProductInventory.Size size) {
+        try {
+            hotSkuInventory.disable(productId, size);
+            return ResponseEntity.ok("Hot SKU handed back to the inventory table");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error disabling hot SKU: " + e.getMessage());
+        }
+    }
+}
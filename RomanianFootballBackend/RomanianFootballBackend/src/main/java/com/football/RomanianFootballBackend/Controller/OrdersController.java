@@ -3,12 +3,17 @@ package com.football.RomanianFootballBackend.Controller;
 import com.football.RomanianFootballBackend.DTO.CreateOrderDTO;
 import com.football.RomanianFootballBackend.DTO.OrderDTO;
 import com.football.RomanianFootballBackend.Entity.Orders;
+import com.football.RomanianFootballBackend.Service.CartStore;
+import com.football.RomanianFootballBackend.Service.InsufficientStockException;
 import com.football.RomanianFootballBackend.Service.OrdersService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -17,6 +22,9 @@ public class OrdersController {
     @Autowired
     private OrdersService ordersService;
 
+    @Autowired
+    private CartStore cartStore;
+
     @GetMapping
     public ResponseEntity<?> getAllOrders() {
         try {
@@ -43,8 +51,15 @@ public class OrdersController {
     @PostMapping
     public ResponseEntity<?> createOrder(@RequestBody CreateOrderDTO createOrderDTO) {
         try {
+            // The cart's lines have to be in cart_items before checkout reads them
+            cartStore.detachByUserId(createOrderDTO.getUserId());
             Orders newOrder = ordersService.createOrder(createOrderDTO);
             return ResponseEntity.ok(newOrder);
+        } catch (InsufficientStockException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("error", e.getMessage());
+            body.put("shortages", e.getShortages());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error creating order: " + e.getMessage());
         }
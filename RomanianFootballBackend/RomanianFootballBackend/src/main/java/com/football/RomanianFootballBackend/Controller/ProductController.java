@@ -1,37 +1,118 @@
 package com.football.RomanianFootballBackend.Controller;
 
 import com.football.RomanianFootballBackend.DTO.ProductDTO;
+import com.football.RomanianFootballBackend.DTO.ProductDetailDTO;
 import com.football.RomanianFootballBackend.Entity.Product;
+import com.football.RomanianFootballBackend.Service.CatalogSnapshots;
+import com.football.RomanianFootballBackend.Service.CatalogVersions;
+import com.football.RomanianFootballBackend.Service.ProductDetailService;
+import com.football.RomanianFootballBackend.Service.ProductFacetIndex;
 import com.football.RomanianFootballBackend.Service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 
+import java.io.IOException;
+import java.security.Principal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/product")
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
 public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CatalogSnapshots catalogSnapshots;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private ProductDetailService productDetailService;
+
     @GetMapping
-    public ResponseEntity<?> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public void getAllProducts(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        writeSnapshot(catalogSnapshots.getAllProducts(), request, response);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<?> getProductPage(@RequestParam(required = false) String after,
+                                            @RequestParam(defaultValue = "24") int limit,
+                                            @RequestParam(defaultValue = "id") String sort) {
+        try {
+            return ResponseEntity.ok(productService.getProductPage(after, limit, sort));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProductById(@PathVariable int id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public void getProductById(@PathVariable int id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        CatalogSnapshots.Snapshot snapshot = catalogSnapshots.getProduct(id);
+        if (snapshot == null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            return;
+        }
+        writeSnapshot(snapshot, request, response);
     }
 
+    // Product, photos, stock and, for a signed-in user, wishlist membership in one round trip
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<?> getProductDetail(@PathVariable int id, Principal principal,
+                                              HttpServletRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.COOKIE);
+        if (principal == null) {
+            if (ConditionalRequests.notModified(request, response, productDetailService.detailTag(id))) {
+                return null;
+            }
+        } else {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+
+        ProductDetailDTO detail = productDetailService.getProductDetail(id, principal == null ? null : principal.getName());
+        if (detail == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(detail);
+    }
+
+    // The 50 best matches at most
     @GetMapping("/searchByName")
-    public ResponseEntity<?> getProductsByName(@RequestParam String name) {
-        List<ProductDTO> products = productService.getProductsByName(name);
+    public ResponseEntity<?> getProductsByName(@RequestParam String name,
+                                               @RequestParam(defaultValue = "false") boolean fuzzy) {
+        List<ProductDTO> products = productService.getProductsByName(name, fuzzy);
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(@RequestParam String q, @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(productService.suggest(q, limit));
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterProducts(@RequestParam(required = false) List<String> team,
+                                            @RequestParam(required = false) List<String> licenced,
+                                            @RequestParam(required = false) List<String> price,
+                                            @RequestParam(required = false) List<String> size,
+                                            @RequestParam(defaultValue = "0") int offset,
+                                            @RequestParam(defaultValue = "100") int limit) {
+        Map<String, List<String>> selections = new HashMap<>();
+        selections.put(ProductFacetIndex.TEAM, team == null ? List.of() : team);
+        selections.put(ProductFacetIndex.LICENCED, licenced == null ? List.of() : licenced);
+        selections.put(ProductFacetIndex.PRICE, price == null ? List.of() : price);
+        selections.put(ProductFacetIndex.SIZE, size == null ? List.of() : size);
+        return ResponseEntity.ok(productService.filterProducts(selections, offset, limit));
+    }
+
     @PostMapping
     public ResponseEntity<?> addProduct(@RequestBody Product product) {
         return ResponseEntity.ok(productService.addProduct(product));
@@ -60,4 +141,25 @@ public class ProductController {
             return ResponseEntity.badRequest().body("Error deleting product: " + e.getMessage());
         }
     }
+
+    // Pre-encoded bodies go straight to the servlet stream, skipping message converters
+    private void writeSnapshot(CatalogSnapshots.Snapshot snapshot, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = snapshot.gzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (ConditionalRequests.notModified(request, response, catalogVersions.catalogTag(snapshot.generation(), gzip))) {
+            return;
+        }
+
+        byte[] body = gzip ? snapshot.gzip() : snapshot.json();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
 }
@@ -1,7 +1,10 @@
 package com.football.RomanianFootballBackend.Controller;
 
 import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.Service.CatalogVersions;
 import com.football.RomanianFootballBackend.Service.ProductInventoryService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,8 +21,14 @@ public class ProductInventoryController {
     @Autowired
     private ProductInventoryService productInventoryService;
 
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     @GetMapping
-    public ResponseEntity<?> getAllProductInventories() {
+    public ResponseEntity<?> getAllProductInventories(HttpServletRequest request, HttpServletResponse response) {
+        if (ConditionalRequests.notModified(request, response, catalogVersions.allInventoryTag())) {
+            return null;
+        }
         return ResponseEntity.ok(productInventoryService.getAllProductInventories());
     }
 
@@ -29,7 +38,12 @@ public class ProductInventoryController {
     }
 
     @GetMapping("/product/{productId}")
-    public ResponseEntity<List<Map<String, Object>>> getInventoryByProductId(@PathVariable Integer productId) {
+    public ResponseEntity<List<Map<String, Object>>> getInventoryByProductId(@PathVariable Integer productId,
+                                                                             HttpServletRequest request,
+                                                                             HttpServletResponse servletResponse) {
+        if (ConditionalRequests.notModified(request, servletResponse, catalogVersions.inventoryTag(productId))) {
+            return null;
+        }
         List<ProductInventory> inventory = productInventoryService.findByProductId(productId);
         List<Map<String, Object>> response = inventory.stream()
             .map(item -> {
@@ -42,9 +56,23 @@ public class ProductInventoryController {
         return ResponseEntity.ok(response);
     }
 
+    // Listing pages ask for all their products at once instead of one request per product
+    @PostMapping("/availability")
+    public ResponseEntity<?> getAvailability(@RequestBody List<Integer> productIds) {
+        try {
+            return ResponseEntity.ok(productInventoryService.getAvailability(productIds));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error getting availability: " + e.getMessage());
+        }
+    }
+
     @PostMapping
     public ResponseEntity<?> addProductInventory(@RequestBody ProductInventory productInventory) {
-        return ResponseEntity.ok(productInventoryService.addProductInventory(productInventory));
+        try {
+            return ResponseEntity.ok(productInventoryService.addProductInventory(productInventory));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error adding product inventory: " + e.getMessage());
+        }
     }
 
     @PutMapping("/{id}")
@@ -1,7 +1,10 @@
 package com.football.RomanianFootballBackend.Controller;
 
 import com.football.RomanianFootballBackend.Entity.ProductPhotos;
+import com.football.RomanianFootballBackend.Service.CatalogVersions;
 import com.football.RomanianFootballBackend.Service.ProductPhotosService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,13 +17,23 @@ public class ProductPhotosController {
     @Autowired
     private ProductPhotosService productPhotosService;
 
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     @GetMapping
-    public ResponseEntity<?> getAllPhotos() {
+    public ResponseEntity<?> getAllPhotos(HttpServletRequest request, HttpServletResponse response) {
+        if (ConditionalRequests.notModified(request, response, catalogVersions.allPhotosTag())) {
+            return null;
+        }
         return ResponseEntity.ok(productPhotosService.getAllPhotos());
     }
 
     @GetMapping("/{productId}")
-    public ResponseEntity<?> getPhotoByProductId(@PathVariable Integer productId) {
+    public ResponseEntity<?> getPhotoByProductId(@PathVariable Integer productId, HttpServletRequest request,
+                                                 HttpServletResponse response) {
+        if (ConditionalRequests.notModified(request, response, catalogVersions.photosTag(productId))) {
+            return null;
+        }
         return ResponseEntity.ok(productPhotosService.getPhotoByProductId(productId));
     }
 
@@ -0,0 +1,91 @@
+package com.football.RomanianFootballBackend.DTO;
+
+import java.util.List;
+
+// Several cart changes sent together; they are applied in order, all or none
+public class CartBatchDTO {
+    private List<CartOperationDTO> operations;
+
+    public List<CartOperationDTO> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<CartOperationDTO> operations) {
+        this.operations = operations;
+    }
+
+    public static class CartOperationDTO {
+        private Type type;
+        // UPDATE and REMOVE
+        private Integer itemId;
+        // ADD
+        private Integer productId;
+        private String size;
+        private String player;
+        private String number;
+        // ADD and UPDATE
+        private Integer quantity;
+
+        public enum Type {
+            ADD,
+            UPDATE,
+            REMOVE
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public void setType(Type type) {
+            this.type = type;
+        }
+
+        public Integer getItemId() {
+            return itemId;
+        }
+
+        public void setItemId(Integer itemId) {
+            this.itemId = itemId;
+        }
+
+        public Integer getProductId() {
+            return productId;
+        }
+
+        public void setProductId(Integer productId) {
+            this.productId = productId;
+        }
+
+        public String getSize() {
+            return size;
+        }
+
+        public void setSize(String size) {
+            this.size = size;
+        }
+
+        public String getPlayer() {
+            return player;
+        }
+
+        public void setPlayer(String player) {
+            this.player = player;
+        }
+
+        public String getNumber() {
+            return number;
+        }
+
+        public void setNumber(String number) {
+            this.number = number;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.football.RomanianFootballBackend.DTO;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 public class CartItemDTO {
     private Integer id;
@@ -10,6 +11,8 @@ public class CartItemDTO {
     private String player;
     private String number;
     private BigDecimal price;
+    // Until when the units are held for this cart; null when they are not held
+    private Instant heldUntil;
 
     // Getters and Setters
     public Integer getId() {
@@ -67,4 +70,12 @@ public class CartItemDTO {
     public void setPrice(BigDecimal price) {
         this.price = price;
     }
-}
\ No newline at end of file
+
+    public Instant getHeldUntil() {
+        return heldUntil;
+    }
+
+    public void setHeldUntil(Instant heldUntil) {
+        this.heldUntil = heldUntil;
+    }
+}
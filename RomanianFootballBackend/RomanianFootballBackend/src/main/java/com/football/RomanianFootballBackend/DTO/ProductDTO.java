@@ -12,6 +12,20 @@ public class ProductDTO {
     private Boolean licenced;
 
     // Constructors, getters, and setters
+    public ProductDTO() {
+    }
+
+    public ProductDTO(Integer id, String name, String description, BigDecimal price,
+                      String team, Boolean licenced, String photoUrl) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.team = team;
+        this.licenced = licenced;
+        this.photoUrl = photoUrl;
+    }
+
     public Integer getId() {
         return id;
     }
@@ -0,0 +1,87 @@
+package com.football.RomanianFootballBackend.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public class ProductDetailDTO {
+    private ProductDTO product;
+    private List<ProductPhotoDTO> photos;
+    private List<SizeQuantityDTO> sizes;
+
+    // Only present for signed-in users, so anonymous responses stay shareable
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean inWishlist;
+
+    public ProductDetailDTO() {
+    }
+
+    public ProductDetailDTO(ProductDTO product, List<ProductPhotoDTO> photos, List<SizeQuantityDTO> sizes,
+                            Boolean inWishlist) {
+        this.product = product;
+        this.photos = photos;
+        this.sizes = sizes;
+        this.inWishlist = inWishlist;
+    }
+
+    public ProductDTO getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductDTO product) {
+        this.product = product;
+    }
+
+    public List<ProductPhotoDTO> getPhotos() {
+        return photos;
+    }
+
+    public void setPhotos(List<ProductPhotoDTO> photos) {
+        this.photos = photos;
+    }
+
+    public List<SizeQuantityDTO> getSizes() {
+        return sizes;
+    }
+
+    public void setSizes(List<SizeQuantityDTO> sizes) {
+        this.sizes = sizes;
+    }
+
+    public Boolean getInWishlist() {
+        return inWishlist;
+    }
+
+    public void setInWishlist(Boolean inWishlist) {
+        this.inWishlist = inWishlist;
+    }
+
+    public static class SizeQuantityDTO {
+        private String size;
+        private Integer quantity;
+
+        public SizeQuantityDTO() {
+        }
+
+        public SizeQuantityDTO(String size, Integer quantity) {
+            this.size = size;
+            this.quantity = quantity;
+        }
+
+        public String getSize() {
+            return size;
+        }
+
+        public void setSize(String size) {
+            this.size = size;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
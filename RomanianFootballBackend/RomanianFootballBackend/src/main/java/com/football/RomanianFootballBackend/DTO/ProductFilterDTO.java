@@ -0,0 +1,44 @@
+package com.football.RomanianFootballBackend.DTO;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductFilterDTO {
+    private List<ProductDTO> products;
+    private Map<String, Map<String, Integer>> facets;
+    // Matches in all, of which products is one page
+    private int total;
+
+    public ProductFilterDTO() {
+    }
+
+    public ProductFilterDTO(List<ProductDTO> products, Map<String, Map<String, Integer>> facets, int total) {
+        this.products = products;
+        this.facets = facets;
+        this.total = total;
+    }
+
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductDTO> products) {
+        this.products = products;
+    }
+
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Map<String, Integer>> facets) {
+        this.facets = facets;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,52 @@
+package com.football.RomanianFootballBackend.DTO;
+
+import com.football.RomanianFootballBackend.Entity.ProductPhotos;
+
+public class ProductPhotoDTO {
+    private Integer id;
+    private String photoUrl;
+    private Boolean isPrimary;
+    private Integer displayOrder;
+
+    public ProductPhotoDTO() {
+    }
+
+    public ProductPhotoDTO(Integer id, String photoUrl, Boolean isPrimary, Integer displayOrder) {
+        this.id = id;
+        this.photoUrl = ProductPhotos.toWebPath(photoUrl);
+        this.isPrimary = isPrimary;
+        this.displayOrder = displayOrder;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getPhotoUrl() {
+        return photoUrl;
+    }
+
+    public void setPhotoUrl(String photoUrl) {
+        this.photoUrl = photoUrl;
+    }
+
+    public Boolean getIsPrimary() {
+        return isPrimary;
+    }
+
+    public void setIsPrimary(Boolean isPrimary) {
+        this.isPrimary = isPrimary;
+    }
+
+    public Integer getDisplayOrder() {
+        return displayOrder;
+    }
+
+    public void setDisplayOrder(Integer displayOrder) {
+        this.displayOrder = displayOrder;
+    }
+}
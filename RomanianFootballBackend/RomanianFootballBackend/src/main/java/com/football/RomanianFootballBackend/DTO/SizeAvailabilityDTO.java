@@ -0,0 +1,52 @@
+package com.football.RomanianFootballBackend.DTO;
+
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+
+// Stock of one product in every size, indexed by ProductInventory.Size ordinal (S, M, L, XL, XXL):
+// bit n of inStock is set when quantities[n] > 0
+public class SizeAvailabilityDTO {
+    private Integer productId;
+    private int inStock;
+    private int[] quantities;
+
+    public SizeAvailabilityDTO() {
+    }
+
+    public SizeAvailabilityDTO(Integer productId) {
+        this.productId = productId;
+        this.quantities = new int[ProductInventory.Size.values().length];
+    }
+
+    public void addQuantity(ProductInventory.Size size, int quantity) {
+        quantities[size.ordinal()] += quantity;
+        if (quantities[size.ordinal()] > 0) {
+            inStock |= 1 << size.ordinal();
+        } else {
+            inStock &= ~(1 << size.ordinal());
+        }
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public int getInStock() {
+        return inStock;
+    }
+
+    public void setInStock(int inStock) {
+        this.inStock = inStock;
+    }
+
+    public int[] getQuantities() {
+        return quantities;
+    }
+
+    public void setQuantities(int[] quantities) {
+        this.quantities = quantities;
+    }
+}
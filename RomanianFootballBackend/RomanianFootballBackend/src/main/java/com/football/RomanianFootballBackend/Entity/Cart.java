@@ -2,12 +2,16 @@ package com.football.RomanianFootballBackend.Entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 @Entity
-@Table(name = "cart")
+@Table(name = "cart", indexes = {
+        @Index(name = "idx_cart_last_activity", columnList = "last_activity")
+})
 @JsonIgnoreProperties({"cartItems"})
 public class Cart {
     @Id
@@ -21,6 +25,11 @@ public class Cart {
     @Column(name = "total_price")
     private BigDecimal totalPrice;
 
+    // When the cart's lines last changed; carts idle for long enough lose their lines to the purge
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "last_activity", nullable = false)
+    private Instant lastActivity = Instant.now();
+
     @OneToMany(mappedBy = "cart")
     private List<CartItems> cartItems;
 
@@ -48,6 +57,14 @@ public class Cart {
         this.totalPrice = totalPrice;
     }
 
+    public Instant getLastActivity() {
+        return lastActivity;
+    }
+
+    public void setLastActivity(Instant lastActivity) {
+        this.lastActivity = lastActivity;
+    }
+
     public List<CartItems> getCartItems() {
         return cartItems;
     }
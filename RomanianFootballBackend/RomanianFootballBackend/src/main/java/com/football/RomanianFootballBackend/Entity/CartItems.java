@@ -3,9 +3,13 @@ package com.football.RomanianFootballBackend.Entity;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
-@Table(name = "cart_items")
+// One line per product, size and customization within a cart; also the index add-to-cart probes
+@Table(name = "cart_items", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cart_items_line", columnNames = {"cart_id", "product_id", "size", "player", "number"})
+})
 public class CartItems {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,6 +37,22 @@ public class CartItems {
     @Column(nullable = false)
     private BigDecimal price;
 
+    // Set while the line holds its units in product_inventory.reserved
+    @Column(name = "held_until")
+    private Instant heldUntil;
+
+    // The unique constraint treats NULLs as distinct, so a missing customization is stored as ""
+    @PrePersist
+    @PreUpdate
+    void blankCustomization() {
+        if (player == null) {
+            player = "";
+        }
+        if (number == null) {
+            number = "";
+        }
+    }
+
     public Integer getId() {
         return id;
     }
@@ -96,4 +116,12 @@ public class CartItems {
     public void setPrice(BigDecimal price) {
         this.price = price;
     }
+
+    public Instant getHeldUntil() {
+        return heldUntil;
+    }
+
+    public void setHeldUntil(Instant heldUntil) {
+        this.heldUntil = heldUntil;
+    }
 }
@@ -0,0 +1,33 @@
+package com.football.RomanianFootballBackend.Entity;
+
+import jakarta.persistence.*;
+
+// Last hot-SKU journal record whose stock change has been applied to product_inventory
+@Entity
+@Table(name = "inventory_journal_checkpoint")
+public class InventoryJournalCheckpoint {
+    // There is a single journal, so a single row
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(Long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+}
@@ -8,7 +8,10 @@ import java.util.List;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "product")
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_price_id", columnList = "price, id"),
+        @Index(name = "idx_product_name_id", columnList = "name, id")
+})
 @JsonIgnoreProperties({"cartItems", "orderItems", "reviews", "wishlistItems", "inventories", "photos"})
 public class Product {
     @Id
@@ -1,9 +1,13 @@
 package com.football.RomanianFootballBackend.Entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "product_inventory")
+// One row per product and size, which checkout's conditional updates rely on
+@Table(name = "product_inventory", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_inventory_sku", columnNames = {"product_id", "size"})
+})
 public class ProductInventory {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,6 +24,11 @@ public class ProductInventory {
     @Column(nullable = false)
     private Integer quantity;
 
+    // Units held by carts (soft reservations); only quantity - reserved can be sold to anyone else
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Integer reserved = 0;
+
     public enum Size {
        S, M, L, XL, XXL
    }
@@ -56,4 +65,12 @@ public class ProductInventory {
         this.quantity = quantity;
     }
 
+    public Integer getReserved() {
+        return reserved;
+    }
+
+    public void setReserved(Integer reserved) {
+        this.reserved = reserved;
+    }
+
 }
@@ -41,8 +41,12 @@ public class ProductPhotos {
     }
 
     public String getPhotoUrl() {
+        return toWebPath(photoUrl);
+    }
+
+    // Convert file system path to web path
+    public static String toWebPath(String photoUrl) {
         if (photoUrl != null && photoUrl.contains(":\\")) {
-            // Convert file system path to web path
             String[] parts = photoUrl.split("\\\\");
             String filename = parts[parts.length - 1];
             return "/images/" + filename;
@@ -1,10 +1,72 @@
 package com.football.RomanianFootballBackend.Repository;
 
 import com.football.RomanianFootballBackend.Entity.CartItems;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface CartItemsRepository extends JpaRepository<CartItems, Integer> {
+    // Each line with its product and the product's primary photo (else its first), all in one statement
+    String CART_LINE_VIEW_SELECT = "SELECT ci.id AS id, ci.size AS size, ci.quantity AS quantity, ci.player AS player, " +
+            "ci.number AS number, ci.price AS price, ci.heldUntil AS heldUntil, p.id AS productId, " +
+            "p.name AS productName, p.description AS productDescription, p.price AS productPrice, " +
+            "p.team AS productTeam, p.licenced AS productLicenced, ph.photoUrl AS photoUrl " +
+            "FROM CartItems ci JOIN ci.product p LEFT JOIN ProductPhotos ph ON ph.product = p AND ph.id = (" +
+            "SELECT COALESCE(MIN(CASE WHEN pp.isPrimary = true THEN pp.id END), MIN(pp.id)) " +
+            "FROM ProductPhotos pp WHERE pp.product = p) ";
+
     List<CartItems> findByCartId(Integer cartId);
+
+    // Checkout's read: the lines with their products in one statement, however many products the cart has
+    @Query("SELECT ci FROM CartItems ci JOIN FETCH ci.product WHERE ci.cart.id = :cartId ORDER BY ci.id")
+    List<CartItems> findWithProductByCartId(@Param("cartId") Integer cartId);
+
+    // One statement for the whole cart instead of a delete per line
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CartItems ci WHERE ci.cart.id = :cartId")
+    int deleteByCartIdInBulk(@Param("cartId") Integer cartId);
+
+    @Query(CART_LINE_VIEW_SELECT + "WHERE ci.cart.id = :cartId ORDER BY ci.id")
+    List<CartLineView> findViewByCartId(@Param("cartId") Integer cartId);
+
+    @Query(CART_LINE_VIEW_SELECT + "WHERE ci.id = :id")
+    Optional<CartLineView> findViewById(@Param("id") Integer id);
+
+    @Query(CART_LINE_VIEW_SELECT + "WHERE ci.cart.user.id = :userId ORDER BY ci.id")
+    List<CartLineView> findViewByUserId(@Param("userId") Integer userId);
+
+    @Query("SELECT ci FROM CartItems ci WHERE ci.cart.id = :cartId AND ci.product.id = :productId " +
+            "AND ci.size = :size AND ci.player = :player AND ci.number = :number")
+    Optional<CartItems> findLine(@Param("cartId") Integer cartId, @Param("productId") Integer productId,
+                                 @Param("size") ProductInventory.Size size, @Param("player") String player,
+                                 @Param("number") String number);
+
+    // Whoever clears held_until owns releasing the hold, so expiry and checkout never both release it
+    @Modifying
+    @Query("UPDATE CartItems ci SET ci.heldUntil = NULL WHERE ci.id = :id AND ci.heldUntil IS NOT NULL")
+    int claimHold(@Param("id") Integer id);
+
+    interface CartLineView {
+        Integer getId();
+        ProductInventory.Size getSize();
+        Integer getQuantity();
+        String getPlayer();
+        String getNumber();
+        BigDecimal getPrice();
+        Instant getHeldUntil();
+        Integer getProductId();
+        String getProductName();
+        String getProductDescription();
+        BigDecimal getProductPrice();
+        String getProductTeam();
+        Boolean getProductLicenced();
+        String getPhotoUrl();
+    }
 }
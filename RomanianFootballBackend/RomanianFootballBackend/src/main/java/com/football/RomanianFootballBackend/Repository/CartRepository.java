@@ -1,13 +1,48 @@
 package com.football.RomanianFootballBackend.Repository;
 
 import com.football.RomanianFootballBackend.Entity.Cart;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Integer> {
     @Query("SELECT c FROM Cart c WHERE c.user.id = :userId")
     Optional<Cart> findByUserId(@Param("userId") Integer userId);
+
+    // Serializes changes to one cart's lines until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cart c WHERE c.id = :id")
+    Optional<Cart> lockById(@Param("id") Integer id);
+
+    // Applies a line's price change in place, without reading the cart or its other lines. Every change to the
+    // lines goes through here, so it also marks the cart active.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Cart c SET c.totalPrice = COALESCE(c.totalPrice, 0) + :delta, c.lastActivity = INSTANT " +
+            "WHERE c.id = :cartId")
+    int addToTotal(@Param("cartId") Integer cartId, @Param("delta") BigDecimal delta);
+
+    // Carts whose stored total does not match the sum of their lines
+    @Query("SELECT c.id AS cartId, c.totalPrice AS storedTotal, COALESCE(SUM(ci.price), 0) AS lineTotal " +
+            "FROM Cart c LEFT JOIN c.cartItems ci GROUP BY c.id, c.totalPrice " +
+            "HAVING COALESCE(c.totalPrice, 0) <> COALESCE(SUM(ci.price), 0) ORDER BY c.id")
+    List<TotalDrift> findTotalDrift();
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.totalPrice = " +
+            "(SELECT COALESCE(SUM(ci.price), 0) FROM CartItems ci WHERE ci.cart.id = c.id) WHERE c.id IN :cartIds")
+    int recomputeTotals(@Param("cartIds") Collection<Integer> cartIds);
+
+    interface TotalDrift {
+        Integer getCartId();
+        BigDecimal getStoredTotal();
+        BigDecimal getLineTotal();
+    }
 }
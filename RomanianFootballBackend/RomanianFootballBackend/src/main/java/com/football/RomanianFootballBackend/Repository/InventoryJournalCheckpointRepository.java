@@ -0,0 +1,7 @@
+package com.football.RomanianFootballBackend.Repository;
+
+import com.football.RomanianFootballBackend.Entity.InventoryJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface InventoryJournalCheckpointRepository extends JpaRepository<InventoryJournalCheckpoint, Integer> {
+}
@@ -2,6 +2,20 @@ package com.football.RomanianFootballBackend.Repository;
 
 import com.football.RomanianFootballBackend.Entity.OrderItems;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface OrderItemsRepository extends JpaRepository<OrderItems, Integer> {
+    @Query("SELECT oi FROM OrderItems oi WHERE oi.orders.id = :orderId ORDER BY oi.id")
+    List<OrderItems> findByOrderId(@Param("orderId") Integer orderId);
+
+    @Query("SELECT oi.product.id AS productId, SUM(oi.quantity) AS sold FROM OrderItems oi GROUP BY oi.product.id")
+    List<ProductSales> findSalesPerProduct();
+
+    interface ProductSales {
+        Integer getProductId();
+        Long getSold();
+    }
 }
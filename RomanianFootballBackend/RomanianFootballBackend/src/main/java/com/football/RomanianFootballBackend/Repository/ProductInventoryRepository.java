@@ -1,12 +1,82 @@
 package com.football.RomanianFootballBackend.Repository;
 
 import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ProductInventoryRepository extends JpaRepository<ProductInventory, Integer> {
     List<ProductInventory> findByProductId(Integer productId);
     Optional<ProductInventory> findByProductIdAndSize(Integer productId, ProductInventory.Size size);
+
+    // Conditional in-place decrement: 0 rows updated means not enough stock, and no read-modify-write race.
+    // held is what this cart already holds of the SKU; it is consumed rather than counted against the cart.
+    @Modifying
+    @Query("UPDATE ProductInventory pi SET pi.quantity = pi.quantity - :quantity, pi.reserved = pi.reserved - :held " +
+            "WHERE pi.product.id = :productId AND pi.size = :size AND pi.quantity - pi.reserved + :held >= :quantity")
+    int decrementStock(@Param("productId") Integer productId, @Param("size") ProductInventory.Size size,
+                       @Param("quantity") int quantity, @Param("held") int held);
+
+    // Soft reservation for a cart line; 0 rows updated means the unreserved stock cannot cover it
+    @Modifying
+    @Query("UPDATE ProductInventory pi SET pi.reserved = pi.reserved + :quantity " +
+            "WHERE pi.product.id = :productId AND pi.size = :size AND pi.quantity - pi.reserved >= :quantity")
+    int reserveStock(@Param("productId") Integer productId, @Param("size") ProductInventory.Size size,
+                     @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE ProductInventory pi SET pi.reserved = pi.reserved - :quantity " +
+            "WHERE pi.product.id = :productId AND pi.size = :size")
+    int releaseReserved(@Param("productId") Integer productId, @Param("size") ProductInventory.Size size,
+                        @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE ProductInventory pi SET pi.quantity = pi.quantity + :quantity " +
+            "WHERE pi.product.id = :productId AND pi.size = :size")
+    int incrementStock(@Param("productId") Integer productId, @Param("size") ProductInventory.Size size,
+                       @Param("quantity") int quantity);
+
+    // Waits for any checkout holding the row, and keeps new ones out until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pi FROM ProductInventory pi WHERE pi.product.id = :productId AND pi.size = :size")
+    Optional<ProductInventory> lockByProductIdAndSize(@Param("productId") Integer productId,
+                                                      @Param("size") ProductInventory.Size size);
+
+    // Stock not held for carts
+    @Query("SELECT pi.product.id AS productId, pi.size AS size, pi.quantity - pi.reserved AS quantity " +
+            "FROM ProductInventory pi WHERE pi.quantity - pi.reserved > 0")
+    List<SizeStock> findAllInStock();
+
+    @Query("SELECT pi.product.id AS productId, pi.size AS size, pi.quantity - pi.reserved AS quantity " +
+            "FROM ProductInventory pi WHERE pi.product.id = :productId AND pi.quantity - pi.reserved > 0")
+    List<SizeStock> findInStockByProductId(@Param("productId") Integer productId);
+
+    // Unreserved stock, one row per product and size
+    @Query("SELECT pi.product.id AS productId, pi.size AS size, CAST(SUM(pi.quantity - pi.reserved) AS Integer) AS quantity " +
+            "FROM ProductInventory pi WHERE pi.product.id IN :productIds GROUP BY pi.product.id, pi.size")
+    List<SizeStock> sumStockByProductIds(@Param("productIds") Collection<Integer> productIds);
+
+    // Stock of one size without loading the ProductInventory entity and its product
+    @Query("SELECT pi.id AS id, pi.size AS size, pi.quantity AS quantity " +
+            "FROM ProductInventory pi WHERE pi.product.id = :productId ORDER BY pi.size")
+    List<InventoryRow> findRowsByProductId(@Param("productId") Integer productId);
+
+    interface InventoryRow {
+        Integer getId();
+        ProductInventory.Size getSize();
+        Integer getQuantity();
+    }
+
+    interface SizeStock {
+        Integer getProductId();
+        ProductInventory.Size getSize();
+        Integer getQuantity();
+    }
 }
@@ -1,11 +1,20 @@
 package com.football.RomanianFootballBackend.Repository;
 
+import com.football.RomanianFootballBackend.DTO.ProductPhotoDTO;
 import com.football.RomanianFootballBackend.Entity.ProductPhotos;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface ProductPhotosRepository extends JpaRepository<ProductPhotos, Integer> {
     List<ProductPhotos> findByProductId(Integer productId);
     List<ProductPhotos> findByProductIdAndIsPrimaryTrue(Integer productId);
+
+    // Primary photo first, then gallery order
+    @Query("SELECT new com.football.RomanianFootballBackend.DTO.ProductPhotoDTO(pp.id, pp.photoUrl, pp.isPrimary, pp.displayOrder) " +
+            "FROM ProductPhotos pp WHERE pp.product.id = :productId " +
+            "ORDER BY CASE WHEN pp.isPrimary = true THEN 0 ELSE 1 END, pp.displayOrder NULLS LAST, pp.id")
+    List<ProductPhotoDTO> findPhotoDTOsByProductId(@Param("productId") Integer productId);
 }
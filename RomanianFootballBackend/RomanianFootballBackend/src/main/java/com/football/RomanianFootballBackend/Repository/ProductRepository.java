@@ -1,10 +1,51 @@
 package com.football.RomanianFootballBackend.Repository;
 
+import com.football.RomanianFootballBackend.DTO.ProductDTO;
 import com.football.RomanianFootballBackend.Entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Integer> {
+    // Product columns plus the primary photo, falling back to the first photo, joined in the same statement
+    String PRODUCT_DTO_SELECT = "SELECT new com.football.RomanianFootballBackend.DTO.ProductDTO(" +
+            "p.id, p.name, p.description, p.price, p.team, p.licenced, ph.photoUrl) " +
+            "FROM Product p LEFT JOIN ProductPhotos ph ON ph.product = p AND ph.id = (" +
+            "SELECT COALESCE(MIN(CASE WHEN pp.isPrimary = true THEN pp.id END), MIN(pp.id)) " +
+            "FROM ProductPhotos pp WHERE pp.product = p) ";
+
     List<Product> findByNameContaining(String name);
-}
\ No newline at end of file
+
+    @Query(PRODUCT_DTO_SELECT + "ORDER BY p.id")
+    List<ProductDTO> findAllProductDTOs();
+
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.id = :id")
+    Optional<ProductDTO> findProductDTOById(@Param("id") Integer id);
+
+    // Keyset pages: seek past the last (sort key, id) pair instead of using OFFSET
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductDTO> findPageById(@Param("afterId") Integer afterId, Limit limit);
+
+    // Rows without a price or name sort first, as the database orders NULLs in the index; the pages walk them by id
+    // and then go on with the keyed rows
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.price IS NULL AND p.id > :afterId ORDER BY p.id")
+    List<ProductDTO> findPageWithoutPrice(@Param("afterId") Integer afterId, Limit limit);
+
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.name IS NULL AND p.id > :afterId ORDER BY p.id")
+    List<ProductDTO> findPageWithoutName(@Param("afterId") Integer afterId, Limit limit);
+
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId) " +
+            "ORDER BY p.price, p.id")
+    List<ProductDTO> findPageByPrice(@Param("afterPrice") BigDecimal afterPrice, @Param("afterId") Integer afterId,
+                                     Limit limit);
+
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.name > :afterName OR (p.name = :afterName AND p.id > :afterId) " +
+            "ORDER BY p.name, p.id")
+    List<ProductDTO> findPageByName(@Param("afterName") String afterName, @Param("afterId") Integer afterId,
+                                    Limit limit);
+}
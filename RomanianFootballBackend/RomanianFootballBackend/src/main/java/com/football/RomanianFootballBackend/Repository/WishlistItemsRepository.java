@@ -4,4 +4,5 @@ import com.football.RomanianFootballBackend.Entity.WishlistItems;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface WishlistItemsRepository extends JpaRepository<WishlistItems, Integer> {
+    boolean existsByWishlistUserEmailAndProductId(String email, Integer productId);
 }
@@ -2,8 +2,10 @@ package com.football.RomanianFootballBackend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class RomanianFootballBackendApplication {
 
 	public static void main(String[] args) {
@@ -43,6 +43,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/product/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/product/searchByName").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/productInventory/**").permitAll()
+                        // A read despite the POST (the id list can be long); must come before the admin POST rule
+                        .requestMatchers(HttpMethod.POST, "/api/productInventory/availability").permitAll()
 
                         // Admin-only endpoints
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
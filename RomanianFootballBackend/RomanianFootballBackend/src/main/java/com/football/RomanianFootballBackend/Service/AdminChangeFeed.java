@@ -0,0 +1,273 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.football.RomanianFootballBackend.DTO.OrderDTO;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.Repository.ProductInventoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Pushes committed inventory and order changes to the admin screens over server-sent events.
+// Each subscriber has a bounded queue drained by its own virtual thread, so a slow connection never holds up
+// the request that made the change; a subscriber whose queue fills up is dropped, and its browser reconnects
+// with Last-Event-ID and is replayed what it missed from a ring of recent events.
+// The listeners only queue the change: its payload is loaded and numbered on one publisher thread, so the
+// committing request never needs a second connection, and feed reads take at most one from the pool.
+@Component
+public class AdminChangeFeed {
+
+    static final int SUBSCRIBER_BUFFER = 256;
+    static final int REPLAY_EVENTS = 1024;
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    // Idle connections get a comment this often, which is also how dead ones are noticed
+    private static final long KEEPALIVE_SECONDS = 15;
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    @Autowired
+    private HotSkuInventory hotSkuInventory;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Event ids from before a restart cannot be resumed
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    // Loads run one at a time, each reading the subject as it is by then, so a later snapshot never gets an earlier
+    // number; InventoryChange replaces the product's rows, so the client would otherwise keep the older one
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor();
+
+    // Guarded by this
+    private final Event[] ring = new Event[REPLAY_EVENTS];
+    private long lastSequence;
+    // Changes up to here were not recorded (nobody was listening), so older ids cannot be resumed
+    private long horizon;
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber;
+        synchronized (this) {
+            List<Event> missed = missedSince(lastEventId);
+            // Room for the replay on top of the usual buffer
+            subscriber = new Subscriber(emitter, SUBSCRIBER_BUFFER + (missed == null ? 1 : missed.size()));
+            if (missed == null) {
+                // Too far behind, or from before a restart: the client has to reload its lists
+                subscriber.queue.offer(new Event(lastSequence, "reset", "{}"));
+            } else {
+                missed.forEach(subscriber.queue::offer);
+            }
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        senders.execute(subscriber::drain);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        publish("inventory", () -> new InventoryChange(event.productId(), currentRows(event.productId())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        publish("order", () -> new OrderChange(event.orderId(), ordersService.getOrderDTOById(event.orderId())));
+    }
+
+    // An import touches too many products to describe one by one
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.affectsAll()) {
+            publish("reset", Map::of);
+        }
+    }
+
+    private void publish(String name, Supplier<Object> payload) {
+        try {
+            publisher.execute(() -> record(name, payload));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    // Publisher thread only
+    private void record(String name, Supplier<Object> payload) {
+        // Nothing is loaded for a change nobody is watching
+        String json = null;
+        if (!subscribers.isEmpty()) {
+            try {
+                json = load(payload);
+            } catch (RuntimeException e) {
+                // The change itself went through; the screens just cannot be told what it was
+                name = "reset";
+                json = "{}";
+            }
+        }
+        synchronized (this) {
+            long sequence = ++lastSequence;
+            if (json == null) {
+                horizon = sequence;
+                return;
+            }
+            Event event = new Event(sequence, name, json);
+            ring[(int) (sequence % REPLAY_EVENTS)] = event;
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(event)) {
+                    subscriber.close();
+                }
+            }
+        }
+    }
+
+    // Runs after the change committed, on the publisher thread, in a read-only transaction of its own
+    private String load(Supplier<Object> payload) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        try {
+            return objectMapper.writeValueAsString(transaction.execute(status -> payload.get()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode admin change event", e);
+        }
+    }
+
+    private List<InventoryRow> currentRows(Integer productId) {
+        return productInventoryRepository.findRowsByProductId(productId).stream()
+                .map(row -> {
+                    Integer hotAvailable = hotSkuInventory.available(new StockKey(productId, row.getSize()));
+                    return new InventoryRow(row.getId(), row.getSize(),
+                            hotAvailable != null ? hotAvailable : row.getQuantity());
+                })
+                .toList();
+    }
+
+    // Null when the events after lastEventId are no longer all available
+    private List<Event> missedSince(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+        }
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        long seen;
+        try {
+            seen = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (seen < horizon || seen < lastSequence - REPLAY_EVENTS || seen > lastSequence) {
+            return null;
+        }
+        List<Event> missed = new ArrayList<>();
+        for (long sequence = seen + 1; sequence <= lastSequence; sequence++) {
+            missed.add(ring[(int) (sequence % REPLAY_EVENTS)]);
+        }
+        return missed;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        publisher.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+        senders.shutdown();
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Event> queue;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        // Only marks the subscriber; the sender thread completes the response, since it may be blocked writing to it
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    Event event = queue.poll(KEEPALIVE_SECONDS, TimeUnit.SECONDS);
+                    if (closed) {
+                        break;
+                    }
+                    if (event == null) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(epoch + "-" + event.sequence())
+                                .name(event.name())
+                                .data(event.json()));
+                    }
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // The client went away
+                close();
+            } catch (InterruptedException e) {
+                close();
+                emitter.complete();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private record Event(long sequence, String name, String json) {
+    }
+
+    public record InventoryRow(
+            Integer id,
+            ProductInventory.Size size,
+            Integer quantity
+    ) {
+    }
+
+    // The product's complete set of rows, which replaces whatever the client had for it
+    public record InventoryChange(
+            Integer productId,
+            List<InventoryRow> rows
+    ) {
+    }
+
+    // order is null when the order was deleted
+    public record OrderChange(
+            Integer orderId,
+            OrderDTO order
+    ) {
+    }
+}
@@ -0,0 +1,224 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.Entity.CartItems;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.Repository.CartItemsRepository;
+import com.football.RomanianFootballBackend.Repository.ProductInventoryRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Soft reservations for cart lines. Adding to the cart moves the units into product_inventory.reserved for a
+// while, so other shoppers no longer see them; checkout consumes the hold, and an abandoned one is handed back
+// when its TTL runs out. Deadlines live in a timing wheel rather than being found by scanning cart_items, and
+// the holds that expire on a tick are released a chunk at a time.
+@Component
+public class CartHoldService {
+
+    static final int RELEASE_CHUNK = 500;
+
+    private static final String RELEASE_RESERVED =
+            "UPDATE product_inventory SET reserved = reserved - ? WHERE product_id = ? AND size = ?";
+
+    @Autowired
+    private CartItemsRepository cartItemsRepository;
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    @Autowired
+    private HotSkuInventory hotSkuInventory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${cart.hold.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.hold.ttl-seconds:900}")
+    private long ttlSeconds;
+
+    @Value("${cart.hold.tick-ms:1000}")
+    private long tickMs;
+
+    // Guarded by itself
+    private TimingWheel wheel;
+
+    // Holds left from before a restart are picked up again, even with holds since turned off, so they still expire
+    @PostConstruct
+    void load() {
+        wheel = new TimingWheel(currentTick());
+        jdbcTemplate.query("SELECT id, held_until FROM cart_items WHERE held_until IS NOT NULL", row -> {
+            wheel.schedule(row.getInt(1), deadlineTick(row.getTimestamp(2).toInstant()));
+        });
+    }
+
+    // Holds the line's units until the TTL runs out. A line the free stock cannot cover is simply not held, and
+    // checkout treats it as before. Hot SKUs are left to their counters.
+    public void hold(CartItems item) {
+        if (!enabled || item.getQuantity() == null || item.getQuantity() <= 0) {
+            return;
+        }
+        Integer productId = item.getProduct().getId();
+        ProductInventory.Size size = item.getSize();
+        if (hotSkuInventory.isHot(productId, size)
+                || productInventoryRepository.reserveStock(productId, size, item.getQuantity()) == 0) {
+            return;
+        }
+        if (hotSkuInventory.isHot(productId, size)) {
+            // Went hot while this waited for the row; the counters already count these units as free
+            productInventoryRepository.releaseReserved(productId, size, item.getQuantity());
+            return;
+        }
+        Instant heldUntil = Instant.now().plusSeconds(ttlSeconds);
+        item.setHeldUntil(heldUntil);
+        cartItemsRepository.save(item);
+        long id = item.getId();
+        long deadline = deadlineTick(heldUntil);
+        // A hold that rolls back never reaches the wheel
+        afterCommit(() -> {
+            synchronized (wheel) {
+                wheel.schedule(id, deadline);
+            }
+        });
+        eventPublisher.publishEvent(new InventoryChangedEvent(productId));
+    }
+
+    // Gives the line's units back now, e.g. because it is removed or its quantity changes
+    public void release(CartItems item) {
+        if (claim(item) > 0) {
+            productInventoryRepository.releaseReserved(item.getProduct().getId(), item.getSize(), item.getQuantity());
+            eventPublisher.publishEvent(new InventoryChangedEvent(item.getProduct().getId()));
+        }
+    }
+
+    // Gives back whatever the cart's lines still hold, in one transaction, for a cart moving to a store that does
+    // not keep holds up to date
+    public void releaseCart(Integer cartId) {
+        transactionTemplate.executeWithoutResult(status -> cartItemsRepository.findByCartId(cartId).stream()
+                .filter(item -> item.getHeldUntil() != null)
+                .forEach(this::release));
+    }
+
+    // Takes the hold over from the wheel and returns the units it covers (0 when the line holds nothing).
+    // Whoever clears held_until owns the units, so checkout and expiry can never both hand them out.
+    public int claim(CartItems item) {
+        if (item.getHeldUntil() == null || cartItemsRepository.claimHold(item.getId()) == 0) {
+            return 0;
+        }
+        item.setHeldUntil(null);
+        return item.getQuantity();
+    }
+
+    @Scheduled(fixedDelayString = "${cart.hold.tick-ms:1000}")
+    public void expire() {
+        expireUpTo(Instant.now());
+    }
+
+    void expireUpTo(Instant now) {
+        long[] due;
+        synchronized (wheel) {
+            due = wheel.advanceTo(now.toEpochMilli() / tickMs);
+        }
+        for (int from = 0; from < due.length; from += RELEASE_CHUNK) {
+            long[] chunk = Arrays.copyOfRange(due, from, Math.min(from + RELEASE_CHUNK, due.length));
+            try {
+                releaseExpired(chunk, now);
+            } catch (RuntimeException e) {
+                // Retried on the next tick
+                synchronized (wheel) {
+                    for (long id : chunk) {
+                        wheel.schedule(id, wheel.currentTick());
+                    }
+                }
+            }
+        }
+    }
+
+    // Outstanding holds the wheel is tracking
+    public int pendingHolds() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    // One transaction per chunk. Lines that are gone, already claimed, or held again since are skipped; a line
+    // held again is back in the wheel under its new deadline.
+    private void releaseExpired(long[] ids, Instant now) {
+        String placeholders = String.join(",", Collections.nCopies(ids.length, "?"));
+        Object[] arguments = new Object[ids.length + 1];
+        for (int i = 0; i < ids.length; i++) {
+            arguments[i] = ids[i];
+        }
+        arguments[ids.length] = Timestamp.from(now);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ExpiredHold> expired = jdbcTemplate.query(
+                    "SELECT id, product_id, size, quantity FROM cart_items WHERE id IN (" + placeholders + ") " +
+                            "AND held_until <= ? FOR UPDATE",
+                    (row, i) -> new ExpiredHold(row.getInt(1), new StockKey(row.getInt(2),
+                            ProductInventory.Size.valueOf(row.getString(3))), row.getInt(4)),
+                    arguments);
+            if (expired.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.update("UPDATE cart_items SET held_until = NULL WHERE id IN ("
+                            + String.join(",", Collections.nCopies(expired.size(), "?")) + ")",
+                    expired.stream().map(ExpiredHold::id).toArray());
+            Map<StockKey, Integer> released = new TreeMap<>(StockKey.LOCK_ORDER);
+            expired.forEach(hold -> released.merge(hold.key(), hold.quantity(), Integer::sum));
+            jdbcTemplate.batchUpdate(RELEASE_RESERVED, released.entrySet().stream()
+                    .map(entry -> new Object[]{entry.getValue(), entry.getKey().productId(), entry.getKey().size().name()})
+                    .toList());
+            released.keySet().stream()
+                    .map(StockKey::productId)
+                    .distinct()
+                    .forEach(productId -> eventPublisher.publishEvent(new InventoryChangedEvent(productId)));
+        });
+    }
+
+    private long currentTick() {
+        return System.currentTimeMillis() / tickMs;
+    }
+
+    // Rounded up, so a hold is never released before its time
+    private long deadlineTick(Instant heldUntil) {
+        return Math.ceilDiv(heldUntil.toEpochMilli(), tickMs);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record ExpiredHold(Integer id, StockKey key, int quantity) {
+    }
+}
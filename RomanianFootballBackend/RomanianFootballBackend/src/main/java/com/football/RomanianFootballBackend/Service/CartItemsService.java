@@ -3,6 +3,7 @@ package com.football.RomanianFootballBackend.Service;
 import com.football.RomanianFootballBackend.DTO.CartItemDTO;
 import com.football.RomanianFootballBackend.DTO.ProductDTO;
 import com.football.RomanianFootballBackend.Entity.CartItems;
+import com.football.RomanianFootballBackend.Entity.ProductPhotos;
 import com.football.RomanianFootballBackend.Repository.CartItemsRepository;
 import com.football.RomanianFootballBackend.Repository.CartRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,7 +24,7 @@ public class CartItemsService {
     private CartRepository cartRepository;
 
     @Autowired
-    private ProductService productService;
+    private CartHoldService cartHoldService;
 
     public List<CartItems> getAllCartItems() {
         return cartItemsRepository.findAll();
@@ -34,31 +35,45 @@ public class CartItemsService {
     }
 
     public List<CartItemDTO> getCartItemsByCartId(Integer cartId) {
-        List<CartItems> items = cartItemsRepository.findByCartId(cartId);
-        return items.stream()
+        return cartItemsRepository.findViewByCartId(cartId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
-    private CartItemDTO convertToDTO(CartItems cartItem) {
+    // The cart screens' read: one statement however many lines; a user without a cart gets no lines
+    public List<CartItemDTO> getCartItemsByUserId(Integer userId) {
+        return cartItemsRepository.findViewByUserId(userId).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    public CartItemDTO getCartItemDTOById(Integer id) {
+        return cartItemsRepository.findViewById(id).map(this::convertToDTO).orElse(null);
+    }
+
+    private CartItemDTO convertToDTO(CartItemsRepository.CartLineView line) {
         CartItemDTO dto = new CartItemDTO();
-        dto.setId(cartItem.getId());
-        dto.setSize(cartItem.getSize().name());
-        dto.setQuantity(cartItem.getQuantity());
-        dto.setPlayer(cartItem.getPlayer());
-        dto.setNumber(cartItem.getNumber());
-        dto.setPrice(cartItem.getPrice());
-
-        ProductDTO productDTO = productService.convertToDTO(cartItem.getProduct());
+        dto.setId(line.getId());
+        dto.setSize(line.getSize().name());
+        dto.setQuantity(line.getQuantity());
+        dto.setPlayer(line.getPlayer());
+        dto.setNumber(line.getNumber());
+        dto.setPrice(line.getPrice());
+        dto.setHeldUntil(line.getHeldUntil());
+
+        ProductDTO productDTO = new ProductDTO(line.getProductId(), line.getProductName(), line.getProductDescription(),
+                line.getProductPrice(), line.getProductTeam(), line.getProductLicenced(),
+                ProductPhotos.toWebPath(line.getPhotoUrl()));
         dto.setProduct(productDTO);
 
         return dto;
     }
 
+    @Transactional
     public CartItems addCartItems(CartItems cartItems) {
         CartItems savedItem = cartItemsRepository.save(cartItems);
         // Update cart total after adding item
-        updateCartTotal(cartItems.getCart().getId());
+        cartRepository.addToTotal(cartItems.getCart().getId(), savedItem.getPrice());
         return savedItem;
     }
 
@@ -67,14 +82,19 @@ public class CartItemsService {
         return cartItemsRepository.findById(id)
                 .map(existingCartItems -> {
                     if (updatedCartItems.getQuantity() != null) {
+                        // The hold is for the old quantity; the new one is held afresh
+                        cartHoldService.release(existingCartItems);
+                        BigDecimal previousPrice = existingCartItems.getPrice();
                         existingCartItems.setQuantity(updatedCartItems.getQuantity());
                         // Update the price based on the new quantity
                         BigDecimal unitPrice = existingCartItems.getProduct().getPrice();
                         existingCartItems.setPrice(unitPrice.multiply(BigDecimal.valueOf(updatedCartItems.getQuantity())));
 
                         CartItems saved = cartItemsRepository.save(existingCartItems);
-                        // Update cart total after item update
-                        updateCartTotal(existingCartItems.getCart().getId());
+                        cartHoldService.hold(saved);
+                        // Update cart total by the line's change
+                        cartRepository.addToTotal(existingCartItems.getCart().getId(),
+                                saved.getPrice().subtract(previousPrice));
                         return saved;
                     }
                     return cartItemsRepository.save(existingCartItems);
@@ -87,21 +107,10 @@ public class CartItemsService {
         CartItems item = cartItemsRepository.findById(id).orElse(null);
         if (item != null) {
             Integer cartId = item.getCart().getId();
+            cartHoldService.release(item);
             cartItemsRepository.deleteById(id);
             // Update cart total after item deletion
-            updateCartTotal(cartId);
+            cartRepository.addToTotal(cartId, item.getPrice().negate());
         }
     }
-
-    private void updateCartTotal(Integer cartId) {
-        List<CartItems> items = cartItemsRepository.findByCartId(cartId);
-        BigDecimal total = items.stream()
-                .map(CartItems::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        cartRepository.findById(cartId).ifPresent(cart -> {
-            cart.setTotalPrice(total);
-            cartRepository.save(cart);
-        });
-    }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.football.RomanianFootballBackend.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Gets cart_items ready for uk_cart_items_line. Before it, every add-to-cart inserted a row, with NULL for a missing
+// player or number, so a table can hold lines the constraint forbids, and ddl-auto=update would then quietly fail to
+// create it. Runs before JPA starts (and so before the schema update): NULLs become "", and each set of duplicate
+// lines is merged into its oldest row, with the quantities and prices added up and any holds given back. Once done
+// there is nothing left for it to find, so later starts only pay for the checks.
+@Configuration(proxyBeanMethods = false)
+public class CartLineMigration implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CartLineMigration.class);
+
+    // held_until comes with holds, which may be newer than the table being migrated
+    private static final String DUPLICATES =
+            "SELECT ci.*, %s AS held FROM cart_items ci " +
+                    "WHERE EXISTS (SELECT 1 FROM cart_items other WHERE other.id <> ci.id AND other.cart_id = ci.cart_id " +
+                    "AND other.product_id = ci.product_id AND other.size = ci.size AND other.player = ci.player " +
+                    "AND other.number = ci.number) ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Built here rather than injected: the shared JdbcTemplate and TransactionTemplate may need JPA, which waits for this
+    public CartLineMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryAfterCartLineMigration() {
+        return new EntityManagerFactoryDependsOnPostProcessor(CartLineMigration.class);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        migrate();
+    }
+
+    void migrate() {
+        Set<String> columns;
+        try {
+            columns = jdbcTemplate.query("SELECT * FROM cart_items WHERE 1 = 0", result -> {
+                Set<String> names = new HashSet<>();
+                for (int i = 1; i <= result.getMetaData().getColumnCount(); i++) {
+                    names.add(result.getMetaData().getColumnLabel(i).toLowerCase(Locale.ROOT));
+                }
+                return names;
+            });
+        } catch (BadSqlGrammarException e) {
+            // No cart_items yet (a new database); the schema update creates it with the constraint
+            return;
+        }
+        boolean holds = columns.contains("held_until");
+        transactionTemplate.executeWithoutResult(status -> {
+            int players = jdbcTemplate.update("UPDATE cart_items SET player = '' WHERE player IS NULL");
+            int numbers = jdbcTemplate.update("UPDATE cart_items SET number = '' WHERE number IS NULL");
+            int merged = mergeDuplicates(holds);
+            if (players + numbers + merged > 0) {
+                log.info("Migrated cart_items for uk_cart_items_line: {} NULL players and {} NULL numbers set to '', "
+                        + "{} duplicate lines merged", players, numbers, merged);
+            }
+        });
+    }
+
+    // Returns the number of rows merged away
+    private int mergeDuplicates(boolean holds) {
+        Map<String, List<Map<String, Object>>> lines = new TreeMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                DUPLICATES.formatted(holds ? "CASE WHEN ci.held_until IS NULL THEN 0 ELSE 1 END" : "0"))) {
+            String line = row.get("cart_id") + "|" + row.get("product_id") + "|" + row.get("size") + "|"
+                    + row.get("player") + "|" + row.get("number");
+            lines.computeIfAbsent(line, key -> new ArrayList<>()).add(row);
+        }
+        List<Object[]> keep = new ArrayList<>();
+        List<Object[]> delete = new ArrayList<>();
+        List<Object[]> release = new ArrayList<>();
+        lines.values().forEach(rows -> {
+            int quantity = 0;
+            BigDecimal price = BigDecimal.ZERO;
+            for (Map<String, Object> row : rows) {
+                int rowQuantity = ((Number) row.get("quantity")).intValue();
+                quantity += rowQuantity;
+                price = price.add((BigDecimal) row.get("price"));
+                if (((Number) row.get("held")).intValue() == 1) {
+                    release.add(new Object[]{rowQuantity, row.get("product_id"), row.get("size")});
+                }
+            }
+            // Rows come in id order, so the first is the oldest
+            keep.add(new Object[]{quantity, price, rows.get(0).get("id")});
+            rows.subList(1, rows.size()).forEach(row -> delete.add(new Object[]{row.get("id")}));
+        });
+        if (lines.isEmpty()) {
+            return 0;
+        }
+        // The merged line starts out unheld; the cart's total does not change
+        jdbcTemplate.batchUpdate("UPDATE product_inventory SET reserved = GREATEST(reserved - ?, 0) " +
+                "WHERE product_id = ? AND size = ?", release);
+        jdbcTemplate.batchUpdate("DELETE FROM cart_items WHERE id = ?", delete);
+        jdbcTemplate.batchUpdate("UPDATE cart_items SET quantity = ?, price = ?" + (holds ? ", held_until = NULL" : "")
+                + " WHERE id = ?", keep);
+        return delete.size();
+    }
+}
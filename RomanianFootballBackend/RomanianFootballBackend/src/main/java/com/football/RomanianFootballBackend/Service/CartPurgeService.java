@@ -0,0 +1,165 @@
+package com.football.RomanianFootballBackend.Service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Empties carts nobody has touched for stale-days. Lines are deleted a primary key range at a time, each range in
+// a transaction of its own with a pause after it, so the row locks are held for one small chunk and checkout
+// never waits behind a whole purge. A cart used again meanwhile keeps its lines: staleness is checked again in
+// the DELETE itself. Lines still holding stock are left for after their hold expires.
+@Component
+public class CartPurgeService {
+
+    private static final String STALE_LINES =
+            "SELECT ci.id FROM cart_items ci JOIN cart c ON c.id = ci.cart_id " +
+                    "WHERE ci.id > ? AND c.last_activity < ? AND ci.held_until IS NULL ORDER BY ci.id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cart.purge.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.purge.stale-days:30}")
+    private long staleDays;
+
+    @Value("${cart.purge.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${cart.purge.pause-ms:200}")
+    private long pauseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong linesDeleted = new AtomicLong();
+    private final AtomicLong cartsEmptied = new AtomicLong();
+    private volatile PurgeRun lastRun;
+
+    @Scheduled(fixedDelayString = "${cart.purge.interval-ms:3600000}",
+            initialDelayString = "${cart.purge.interval-ms:3600000}")
+    public void scheduledPurge() {
+        if (enabled) {
+            purge(Instant.now().minus(Duration.ofDays(staleDays)));
+        }
+    }
+
+    // Null when a purge is already running
+    public PurgeRun purgeNow() {
+        return purge(Instant.now().minus(Duration.ofDays(staleDays)));
+    }
+
+    PurgeRun purge(Instant staleBefore) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            Instant startedAt = Instant.now();
+            Timestamp cutoff = Timestamp.from(staleBefore);
+            long after = 0;
+            int runChunks = 0;
+            long runLines = 0;
+            long runCarts = 0;
+            while (true) {
+                List<Integer> ids = jdbcTemplate.queryForList(STALE_LINES, Integer.class, after, cutoff, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long from = after;
+                long to = ids.get(ids.size() - 1);
+                int[] deleted = transactionTemplate.execute(status -> deleteRange(from, to, cutoff));
+                runChunks++;
+                runLines += deleted[0];
+                runCarts += deleted[1];
+                chunks.incrementAndGet();
+                linesDeleted.addAndGet(deleted[0]);
+                cartsEmptied.addAndGet(deleted[1]);
+                after = to;
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            long millis = Duration.between(startedAt, Instant.now()).toMillis();
+            PurgeRun run = new PurgeRun(startedAt, millis, runChunks, runLines, runCarts,
+                    millis == 0 ? runLines * 1000 : runLines * 1000 / millis);
+            runs.incrementAndGet();
+            lastRun = run;
+            return run;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public PurgeStats getStats() {
+        return new PurgeStats(running.get(), runs.get(), chunks.get(), linesDeleted.get(), cartsEmptied.get(), lastRun);
+    }
+
+    // Lines of stale carts with ids in (from, to]; returns the lines deleted and how many carts that emptied.
+    // The totals of the carts touched are recomputed in the same transaction.
+    private int[] deleteRange(long from, long to, Timestamp cutoff) {
+        List<Integer> cartIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT ci.cart_id FROM cart_items ci JOIN cart c ON c.id = ci.cart_id " +
+                        "WHERE ci.id > ? AND ci.id <= ? AND c.last_activity < ? AND ci.held_until IS NULL",
+                Integer.class, from, to, cutoff);
+        if (cartIds.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        String placeholders = String.join(",", Collections.nCopies(cartIds.size(), "?"));
+        Object[] arguments = new Object[cartIds.size() + 3];
+        arguments[0] = from;
+        arguments[1] = to;
+        arguments[2] = cutoff;
+        for (int i = 0; i < cartIds.size(); i++) {
+            arguments[i + 3] = cartIds.get(i);
+        }
+        int lines = jdbcTemplate.update("DELETE FROM cart_items WHERE id > ? AND id <= ? AND held_until IS NULL " +
+                "AND cart_id IN (SELECT id FROM cart WHERE last_activity < ? AND id IN (" + placeholders + "))", arguments);
+        jdbcTemplate.update("UPDATE cart SET total_price = (SELECT COALESCE(SUM(ci.price), 0) FROM cart_items ci " +
+                "WHERE ci.cart_id = cart.id) WHERE id IN (" + placeholders + ")", cartIds.toArray());
+        Integer emptied = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart c WHERE c.id IN (" + placeholders + ") " +
+                "AND NOT EXISTS (SELECT 1 FROM cart_items ci WHERE ci.cart_id = c.id)", Integer.class, cartIds.toArray());
+        return new int[]{lines, emptied};
+    }
+
+    public record PurgeRun(
+            Instant startedAt,
+            long millis,
+            int chunks,
+            long linesDeleted,
+            long cartsEmptied,
+            long linesPerSecond
+    ) {
+    }
+
+    public record PurgeStats(
+            boolean running,
+            long runs,
+            long chunks,
+            long linesDeleted,
+            long cartsEmptied,
+            PurgeRun lastRun
+    ) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.football.RomanianFootballBackend.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Brings open cart lines up to a product's new price. Runs off the request on one background thread, after the
+// price change committed: the product's lines are walked by primary key, batch-size at a time, and each batch is
+// two set-based statements in a transaction of its own (the carts' totals by the batch's difference, then the
+// lines), so no cart is locked for longer than one batch. Changes that pile up for a product while it waits are
+// handled by one pass at the latest price. A failed pass is logged and the product queued again after a backoff;
+// nothing else brings line prices up to date, and checkout charges them.
+@Component
+public class CartRepricingService {
+
+    // Retries wait twice as long after each failure, up to MAX_BACKOFF_MS
+    static final long FIRST_BACKOFF_MS = 1_000;
+    static final long MAX_BACKOFF_MS = 300_000;
+
+    private static final Logger log = LoggerFactory.getLogger(CartRepricingService.class);
+
+    private static final String BATCH =
+            "SELECT id FROM cart_items WHERE product_id = ? AND id > ? ORDER BY id LIMIT ?";
+
+    // The batch's lines are still at their old price here
+    private static final String ADJUST_TOTALS =
+            "UPDATE cart SET total_price = COALESCE(total_price, 0) + (SELECT SUM(ci.quantity * ? - ci.price) " +
+                    "FROM cart_items ci WHERE ci.cart_id = cart.id AND ci.product_id = ? AND ci.id > ? AND ci.id <= ?) " +
+                    "WHERE id IN (SELECT ci.cart_id FROM cart_items ci WHERE ci.product_id = ? AND ci.id > ? AND ci.id <= ? " +
+                    "AND ci.price <> ci.quantity * ?)";
+
+    private static final String REPRICE_LINES =
+            "UPDATE cart_items SET price = quantity * ? WHERE product_id = ? AND id > ? AND id <= ? AND price <> quantity * ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cart.reprice.batch-size:500}")
+    private int batchSize;
+
+    // Also runs the retries once their backoff is over; one still waiting at shutdown is dropped
+    private final ScheduledThreadPoolExecutor worker = new ScheduledThreadPoolExecutor(1);
+    // Products waiting for a pass
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+
+    public CartRepricingService() {
+        worker.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceChanged(ProductPriceChangedEvent event) {
+        schedule(event.productId(), 0);
+    }
+
+    // Queues a pass unless one is already waiting; a waiting retry keeps its backoff
+    private void schedule(Integer productId, int failures) {
+        if (!pending.add(productId)) {
+            return;
+        }
+        long delay = failures == 0 ? 0 : Math.min(MAX_BACKOFF_MS, FIRST_BACKOFF_MS << Math.min(failures - 1, 20));
+        worker.schedule(() -> {
+            // Taken off first, so a change made during the pass gets a pass of its own
+            pending.remove(productId);
+            try {
+                reprice(productId);
+            } catch (RuntimeException e) {
+                // The batches done so far stay repriced; the next pass picks up the rest at the price of its time
+                log.warn("Repricing cart lines of product {} failed (attempt {}), retrying in the background",
+                        productId, failures + 1, e);
+                schedule(productId, failures + 1);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // The price is read once, when the pass starts; null when the product is gone
+    RepriceRun reprice(Integer productId) {
+        List<BigDecimal> prices = jdbcTemplate.queryForList("SELECT price FROM product WHERE id = ?",
+                BigDecimal.class, productId);
+        if (prices.isEmpty() || prices.get(0) == null) {
+            return null;
+        }
+        BigDecimal price = prices.get(0);
+        long after = 0;
+        int batches = 0;
+        long lines = 0;
+        long carts = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(BATCH, Long.class, productId, after, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            long from = after;
+            long to = ids.get(ids.size() - 1);
+            int[] changed = transactionTemplate.execute(status -> new int[]{
+                    jdbcTemplate.update(ADJUST_TOTALS, price, productId, from, to, productId, from, to, price),
+                    jdbcTemplate.update(REPRICE_LINES, price, productId, from, to, price)
+            });
+            batches++;
+            carts += changed[0];
+            lines += changed[1];
+            after = to;
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        return new RepriceRun(productId, price, batches, lines, carts);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdown();
+    }
+
+    // Carts are counted once per batch they have lines in
+    record RepriceRun(
+            Integer productId,
+            BigDecimal price,
+            int batches,
+            long linesRepriced,
+            long cartsRepriced
+    ) {
+    }
+}
@@ -1,6 +1,8 @@
 package com.football.RomanianFootballBackend.Service;
 
 import com.football.RomanianFootballBackend.DTO.AddToCartDTO;
+import com.football.RomanianFootballBackend.DTO.CartBatchDTO;
+import com.football.RomanianFootballBackend.DTO.CartItemDTO;
 import com.football.RomanianFootballBackend.Entity.*;
 import com.football.RomanianFootballBackend.Repository.CartRepository;
 import com.football.RomanianFootballBackend.Repository.CartItemsRepository;
@@ -12,11 +14,19 @@ import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityNotFoundException;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CartService {
 
+    static final int MAX_BATCH_OPERATIONS = 100;
+
     @Autowired
     private CartRepository cartRepository;
 
@@ -26,6 +36,12 @@ public class CartService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CartHoldService cartHoldService;
+
+    @Autowired
+    private CartItemsService cartItemsService;
+
     public List<Cart> getAllCarts() {
         return cartRepository.findAll();
     }
@@ -45,46 +61,176 @@ public class CartService {
 
     @Transactional
     public CartItems addItemToCart(AddToCartDTO addToCartDTO) {
-        // Find the cart
-        Cart cart = cartRepository.findById(addToCartDTO.getCartId())
+        // Find the cart, locked so two adds of the same line cannot both insert it
+        Cart cart = cartRepository.lockById(addToCartDTO.getCartId())
                 .orElseThrow(() -> new EntityNotFoundException("Cart not found"));
 
         // Find the product
         Product product = productRepository.findById(addToCartDTO.getProductId())
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
 
+        // No customization is stored as "" rather than null, so the line's unique index also covers it
+        ProductInventory.Size size = ProductInventory.Size.valueOf(addToCartDTO.getSize());
+        String player = addToCartDTO.getPlayer() == null ? "" : addToCartDTO.getPlayer();
+        String number = addToCartDTO.getNumber() == null ? "" : addToCartDTO.getNumber();
+
+        // The same product, size and customization again: bump the existing line
+        CartItems existingItem = cartItemsRepository.findLine(cart.getId(), product.getId(), size, player, number)
+                .orElse(null);
+        if (existingItem != null) {
+            // The hold is for the old quantity; the new one is held afresh
+            cartHoldService.release(existingItem);
+            BigDecimal previousPrice = existingItem.getPrice();
+            existingItem.setQuantity(existingItem.getQuantity() + addToCartDTO.getQuantity());
+            existingItem.setPrice(product.getPrice().multiply(BigDecimal.valueOf(existingItem.getQuantity())));
+
+            CartItems savedItem = cartItemsRepository.save(existingItem);
+            cartHoldService.hold(savedItem);
+            cartRepository.addToTotal(cart.getId(), savedItem.getPrice().subtract(previousPrice));
+            return savedItem;
+        }
+
         // Create new cart item
         CartItems cartItem = new CartItems();
         cartItem.setCart(cart);
         cartItem.setProduct(product);
         cartItem.setQuantity(addToCartDTO.getQuantity());
-        cartItem.setSize(ProductInventory.Size.valueOf(addToCartDTO.getSize()));
-        cartItem.setPlayer(addToCartDTO.getPlayer());
-        cartItem.setNumber(addToCartDTO.getNumber());
+        cartItem.setSize(size);
+        cartItem.setPlayer(player);
+        cartItem.setNumber(number);
 
         // Calculate price (if you're storing it in cart_items)
         cartItem.setPrice(product.getPrice().multiply(BigDecimal.valueOf(addToCartDTO.getQuantity())));
 
         CartItems savedItem = cartItemsRepository.save(cartItem);
+        cartHoldService.hold(savedItem);
 
         // Update cart total
-        updateCartTotal(cart.getId());
+        cartRepository.addToTotal(cart.getId(), savedItem.getPrice());
 
         return savedItem;
     }
 
+    // Applies the operations in order in one transaction, with one total update and one reply for all of them.
+    // Any invalid operation rolls the whole batch back.
     @Transactional
-    public void updateCartTotal(Integer cartId) {
-        Cart cart = cartRepository.findById(cartId)
+    public CartContents applyBatch(Integer cartId, List<CartBatchDTO.CartOperationDTO> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("No operations");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_OPERATIONS + " operations per batch");
+        }
+        Cart cart = cartRepository.lockById(cartId)
                 .orElseThrow(() -> new EntityNotFoundException("Cart not found"));
 
-        List<CartItems> items = cartItemsRepository.findByCartId(cartId);
-        BigDecimal total = items.stream()
-                .map(CartItems::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Every line and every product added, each loaded once
+        Map<Integer, CartItems> lines = cartItemsRepository.findByCartId(cartId).stream()
+                .collect(Collectors.toMap(CartItems::getId, Function.identity()));
+        Set<Integer> productIds = operations.stream()
+                .filter(operation -> operation.getType() == CartBatchDTO.CartOperationDTO.Type.ADD)
+                .map(CartBatchDTO.CartOperationDTO::getProductId)
+                .collect(Collectors.toSet());
+        productIds.remove(null);
+        Map<Integer, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        BigDecimal delta = BigDecimal.ZERO;
+        // Lines whose hold was given back; the ones still in the cart are held again at the end
+        Set<CartItems> touched = new HashSet<>();
+        for (CartBatchDTO.CartOperationDTO operation : operations) {
+            if (operation.getType() == null) {
+                throw new IllegalArgumentException("Operation type is required");
+            }
+            CartItems line = switch (operation.getType()) {
+                case ADD -> {
+                    Product product = products.get(operation.getProductId());
+                    if (product == null) {
+                        throw new EntityNotFoundException("Product not found: " + operation.getProductId());
+                    }
+                    ProductInventory.Size size = ProductInventory.Size.valueOf(operation.getSize());
+                    String player = operation.getPlayer() == null ? "" : operation.getPlayer();
+                    String number = operation.getNumber() == null ? "" : operation.getNumber();
+                    CartItems existingItem = lines.values().stream()
+                            .filter(item -> item.getProduct().getId().equals(product.getId()) && item.getSize() == size
+                                    && player.equals(item.getPlayer()) && number.equals(item.getNumber()))
+                            .findFirst()
+                            .orElse(null);
+                    if (existingItem != null) {
+                        yield existingItem;
+                    }
+                    CartItems cartItem = new CartItems();
+                    cartItem.setCart(cart);
+                    cartItem.setProduct(product);
+                    cartItem.setSize(size);
+                    cartItem.setPlayer(player);
+                    cartItem.setNumber(number);
+                    // Filled in below like a bump of an existing line; saved once it has a price
+                    cartItem.setQuantity(0);
+                    cartItem.setPrice(BigDecimal.ZERO);
+                    yield cartItem;
+                }
+                case UPDATE, REMOVE -> {
+                    CartItems existingItem = lines.get(operation.getItemId());
+                    if (existingItem == null) {
+                        throw new EntityNotFoundException("Cart item " + operation.getItemId() + " is not in cart " + cartId);
+                    }
+                    yield existingItem;
+                }
+            };
+            if (line.getId() != null && touched.add(line)) {
+                cartHoldService.release(line);
+            }
+            BigDecimal previousPrice = line.getPrice();
+            switch (operation.getType()) {
+                case ADD -> line.setQuantity(line.getQuantity() + positive(operation.getQuantity()));
+                case UPDATE -> line.setQuantity(positive(operation.getQuantity()));
+                case REMOVE -> {
+                    lines.remove(line.getId());
+                    touched.remove(line);
+                    cartItemsRepository.delete(line);
+                    delta = delta.subtract(previousPrice);
+                    continue;
+                }
+            }
+            line.setPrice(line.getProduct().getPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+            delta = delta.add(line.getPrice()).subtract(previousPrice);
+            if (line.getId() == null) {
+                cartItemsRepository.save(line);
+                lines.put(line.getId(), line);
+                touched.add(line);
+            }
+        }
 
-        cart.setTotalPrice(total);
-        cartRepository.save(cart);
+        cartItemsRepository.flush();
+        touched.forEach(cartHoldService::hold);
+        cartRepository.addToTotal(cartId, delta);
+
+        BigDecimal total = (cart.getTotalPrice() == null ? BigDecimal.ZERO : cart.getTotalPrice()).add(delta);
+        return new CartContents(cartId, total, cartItemsService.getCartItemsByCartId(cartId));
+    }
+
+    static int positive(Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return quantity;
+    }
+
+    // Recomputes the total of every cart whose stored total has drifted from its lines, and reports what was off
+    @Transactional
+    public List<TotalDrift> reconcileTotals() {
+        List<TotalDrift> drift = findTotalDrift();
+        if (!drift.isEmpty()) {
+            cartRepository.recomputeTotals(drift.stream().map(TotalDrift::cartId).toList());
+        }
+        return drift;
+    }
+
+    public List<TotalDrift> findTotalDrift() {
+        return cartRepository.findTotalDrift().stream()
+                .map(row -> new TotalDrift(row.getCartId(), row.getStoredTotal(), row.getLineTotal()))
+                .toList();
     }
 
     public Cart updateCart(int id, Cart updatedCart) {
@@ -102,4 +248,18 @@ public class CartService {
     public void deleteCart(int id) {
         cartRepository.deleteById(id);
     }
+
+    public record CartContents(
+            Integer cartId,
+            BigDecimal totalPrice,
+            List<CartItemDTO> items
+    ) {
+    }
+
+    public record TotalDrift(
+            Integer cartId,
+            BigDecimal storedTotal,
+            BigDecimal lineTotal
+    ) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.AddToCartDTO;
+import com.football.RomanianFootballBackend.DTO.CartBatchDTO;
+import com.football.RomanianFootballBackend.DTO.CartItemDTO;
+
+import java.util.List;
+
+// Where the shopper-facing cart endpoints keep a cart's lines. cart.store picks the implementation:
+// "database" (the default) writes every change through to the tables, "memory" keeps live carts in memory and
+// writes them behind.
+public interface CartStore {
+
+    // Returns the line the product ended up in, which is an existing one when the same line was added before
+    CartItemDTO add(AddToCartDTO addToCartDTO);
+
+    // Applies the operations in order; any invalid operation rejects the whole batch
+    CartService.CartContents apply(Integer cartId, List<CartBatchDTO.CartOperationDTO> operations);
+
+    List<CartItemDTO> getItemsByUserId(Integer userId);
+
+    // Writes out whatever the store has not written yet and lets go of the cart, for code about to read or
+    // change cart_items directly (checkout, the raw cart item and cart endpoints)
+    void detach(Integer cartId);
+
+    void detachByUserId(Integer userId);
+}
@@ -0,0 +1,13 @@
+package com.football.RomanianFootballBackend.Service;
+
+// Published whenever product data visible in the catalog changes; productId is null when the whole catalog changed
+public record CatalogChangedEvent(Integer productId) {
+
+    public static CatalogChangedEvent all() {
+        return new CatalogChangedEvent(null);
+    }
+
+    public boolean affectsAll() {
+        return productId == null;
+    }
+}
@@ -0,0 +1,173 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+// Admin exports read through forward-only cursors and write each row straight to the response as it arrives.
+// They run on a small pool of their own, whose URL can ask for what the cursors need (MySQL only honours the fetch
+// size with useCursorFetch=true, which would make every statement of the app a server-side prepared one).
+@Service
+public class CatalogExportService {
+
+    // Rows fetched per round trip; the whole result set is never held at once
+    static final int EXPORT_FETCH_SIZE = 500;
+
+    // Exports are rare admin requests; one more than this waits for a connection
+    private static final int EXPORT_CONNECTIONS = 2;
+
+    private static final int WRITE_BUFFER_CHARS = 8192;
+
+    // The columns come out in the order of the select list
+    private static final Export PRODUCTS = new Export(
+            "SELECT id, name, description, price, team, licenced FROM product ORDER BY id",
+            List.of("id", "name", "description", "price", "team", "licenced"));
+
+    private static final Export INVENTORY = new Export(
+            "SELECT pi.id, p.id, p.name, pi.size, pi.quantity " +
+                    "FROM product_inventory pi JOIN product p ON p.id = pi.product_id ORDER BY pi.id",
+            List.of("id", "productId", "productName", "size", "quantity"));
+
+    // One row per order line (orders without lines still appear once), in order id order
+    private static final Export ORDER_LINES = new Export(
+            "SELECT o.id, u.email, o.status, o.total_price, d.code, o.city, o.street, o.number, o.postal_code, " +
+                    "p.id, p.name, oi.size, oi.player, oi.number, oi.quantity, oi.price " +
+                    "FROM orders o JOIN user u ON u.id = o.user_id LEFT JOIN discount d ON d.id = o.discount_id " +
+                    "LEFT JOIN order_items oi ON oi.order_id = o.id LEFT JOIN product p ON p.id = oi.product_id " +
+                    "ORDER BY o.id, oi.id",
+            List.of("orderId", "userEmail", "status", "totalPrice", "discountCode", "city", "street", "number",
+                    "postalCode", "productId", "productName", "size", "player", "playerNumber", "quantity", "price"));
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.export.datasource-url:${spring.datasource.url}}")
+    private String exportUrl;
+
+    private HikariDataSource exportDataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void openPool() {
+        exportDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(exportUrl)
+                .build();
+        exportDataSource.setPoolName("catalog-export");
+        exportDataSource.setMaximumPoolSize(EXPORT_CONNECTIONS);
+        exportDataSource.setMinimumIdle(0);
+        exportDataSource.setReadOnly(true);
+        jdbcTemplate = new JdbcTemplate(exportDataSource);
+        jdbcTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+    }
+
+    @PreDestroy
+    void closePool() {
+        exportDataSource.close();
+    }
+
+    public void exportProducts(DataFormat format, OutputStream out) {
+        export(PRODUCTS, format, out);
+    }
+
+    public void exportInventory(DataFormat format, OutputStream out) {
+        export(INVENTORY, format, out);
+    }
+
+    public void exportOrders(DataFormat format, OutputStream out) {
+        export(ORDER_LINES, format, out);
+    }
+
+    // The cursor only advances once the previous row has been handed to the (blocking) response stream,
+    // so a slow client slows the read instead of rows piling up in memory. One statement, so it needs no transaction
+    // to read a consistent snapshot.
+    private void export(Export export, DataFormat format, OutputStream out) {
+        jdbcTemplate.query(export.sql(), (ResultSetExtractor<Void>) rows -> {
+            try {
+                if (format == DataFormat.CSV) {
+                    writeCsv(rows, export.columns(), out);
+                } else {
+                    writeNdjson(rows, export.columns(), out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+    }
+
+    private static void writeCsv(ResultSet rows, List<String> columns, OutputStream out) throws IOException, SQLException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(columns.get(i));
+        }
+        writer.write("\r\n");
+        while (rows.next()) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvField(rows.getObject(i + 1)));
+            }
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(ResultSet rows, List<String> columns, OutputStream out) throws IOException, SQLException {
+        // The response stream belongs to the container, so the generator must not close it
+        JsonGenerator json = objectMapper.createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+        while (rows.next()) {
+            json.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                json.writeFieldName(columns.get(i));
+                json.writeObject(rows.getObject(i + 1));
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+        json.flush();
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private record Export(String sql, List<String> columns) {
+    }
+}
@@ -0,0 +1,342 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+// Loads supplier feeds straight through JDBC: rows are validated as they stream in and written in fixed-size batches
+@Service
+public class CatalogImportService {
+
+    static final int BATCH_SIZE = 500;
+
+    // Keeps the report small for a feed that is wrong on every line
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO product (name, description, price, team, licenced) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_INVENTORY =
+            "INSERT INTO product_inventory (product_id, size, quantity) VALUES (?, ?, ?)";
+    private static final String INSERT_PHOTO =
+            "INSERT INTO product_photos (product_id, photo_url, is_primary, display_order) VALUES (?, ?, ?, ?)";
+
+    private static final Set<String> CSV_COLUMNS = Set.of("name", "description", "price", "team", "licenced", "photos");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public ImportReport importCatalog(InputStream input, DataFormat format) throws IOException {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            if (format == DataFormat.CSV) {
+                readCsv(reader, progress);
+            } else {
+                readNdjson(reader, progress);
+            }
+            flush(progress);
+        } finally {
+            // Whatever made it in is visible, even if the stream broke halfway
+            if (progress.imported > 0) {
+                eventPublisher.publishEvent(CatalogChangedEvent.all());
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new ImportReport(progress.imported, progress.failed, elapsedMillis, progress.errors);
+    }
+
+    private void readNdjson(BufferedReader reader, Progress progress) throws IOException {
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ImportRow row;
+            try {
+                row = objectMapper.readValue(line, ImportRow.class);
+            } catch (IOException e) {
+                progress.reject(lineNumber, "Invalid row: " + e.getMessage().lines().findFirst().orElse(""));
+                continue;
+            }
+            accept(lineNumber, row, progress);
+        }
+    }
+
+    // Header names the columns; size columns (S, M, ...) hold quantities and photos are separated by '|'
+    private void readCsv(BufferedReader reader, Progress progress) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        Map<ProductInventory.Size, Integer> sizeColumns = new EnumMap<>(ProductInventory.Size.class);
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).trim();
+            if (CSV_COLUMNS.contains(column.toLowerCase(Locale.ROOT))) {
+                columns.put(column.toLowerCase(Locale.ROOT), i);
+            } else if (sizeColumns.put(parseSize(column), i) != null) {
+                throw new IllegalArgumentException("Size column " + column + " is given more than once");
+            }
+        }
+
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            int lineNumber = csv.recordLine();
+            try {
+                Map<String, Integer> sizes = new LinkedHashMap<>();
+                for (Map.Entry<ProductInventory.Size, Integer> column : sizeColumns.entrySet()) {
+                    String quantity = field(record, column.getValue());
+                    if (quantity != null) {
+                        sizes.put(column.getKey().name(), Integer.valueOf(quantity));
+                    }
+                }
+                String photos = field(record, columns.get("photos"));
+                String price = field(record, columns.get("price"));
+                String licenced = field(record, columns.get("licenced"));
+                ImportRow row = new ImportRow(
+                        field(record, columns.get("name")),
+                        field(record, columns.get("description")),
+                        price == null ? null : new BigDecimal(price),
+                        field(record, columns.get("team")),
+                        licenced == null ? null : parseBoolean(licenced),
+                        sizes,
+                        photos == null ? List.of() : Arrays.stream(photos.split("\\|")).map(String::trim).toList());
+                accept(lineNumber, row, progress);
+            } catch (NumberFormatException e) {
+                progress.reject(lineNumber, "price and size quantities must be numbers");
+            } catch (IllegalArgumentException e) {
+                progress.reject(lineNumber, e.getMessage());
+            }
+        }
+    }
+
+    private void accept(int lineNumber, ImportRow row, Progress progress) {
+        String error = validate(row);
+        if (error != null) {
+            progress.reject(lineNumber, error);
+            return;
+        }
+        progress.batch.add(new NumberedRow(lineNumber, row));
+        if (progress.batch.size() >= BATCH_SIZE) {
+            flush(progress);
+        }
+    }
+
+    private static String validate(ImportRow row) {
+        if (row.name() == null || row.name().isBlank()) {
+            return "name is required";
+        }
+        if (row.name().length() > MAX_NAME_LENGTH) {
+            return "name is longer than " + MAX_NAME_LENGTH + " characters";
+        }
+        if (row.price() == null) {
+            return "price is required";
+        }
+        if (row.price().signum() < 0) {
+            return "price must not be negative";
+        }
+        if (row.sizes() != null) {
+            // "m" and "M" are the same size, and a product holds one inventory row per size
+            Set<ProductInventory.Size> seen = EnumSet.noneOf(ProductInventory.Size.class);
+            for (Map.Entry<String, Integer> size : row.sizes().entrySet()) {
+                try {
+                    if (!seen.add(parseSize(size.getKey()))) {
+                        return "size " + size.getKey().trim().toUpperCase(Locale.ROOT) + " is given more than once";
+                    }
+                } catch (IllegalArgumentException e) {
+                    return e.getMessage();
+                }
+                if (size.getValue() == null || size.getValue() < 0) {
+                    return "quantity for size " + size.getKey() + " must be zero or more";
+                }
+            }
+        }
+        if (row.photos() != null && row.photos().stream().anyMatch(photo -> photo == null || photo.isBlank())) {
+            return "photo URLs must not be blank";
+        }
+        return null;
+    }
+
+    private void flush(Progress progress) {
+        if (progress.batch.isEmpty()) {
+            return;
+        }
+        List<NumberedRow> batch = List.copyOf(progress.batch);
+        progress.batch.clear();
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            progress.imported += batch.size();
+        } catch (DataAccessException e) {
+            // Something slipped past validation; replay the batch row by row to isolate the culprit
+            for (NumberedRow row : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(row)));
+                    progress.imported++;
+                } catch (DataAccessException rowError) {
+                    progress.reject(row.line(), "Rejected by the database: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<NumberedRow> rows) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            int[] productIds = insertProducts(connection, rows);
+            try (PreparedStatement inventory = connection.prepareStatement(INSERT_INVENTORY);
+                 PreparedStatement photos = connection.prepareStatement(INSERT_PHOTO)) {
+                for (int i = 0; i < rows.size(); i++) {
+                    ImportRow row = rows.get(i).row();
+                    if (row.sizes() != null) {
+                        for (Map.Entry<String, Integer> size : row.sizes().entrySet()) {
+                            inventory.setInt(1, productIds[i]);
+                            inventory.setString(2, parseSize(size.getKey()).name());
+                            inventory.setInt(3, size.getValue());
+                            inventory.addBatch();
+                        }
+                    }
+                    if (row.photos() != null) {
+                        for (int order = 0; order < row.photos().size(); order++) {
+                            photos.setInt(1, productIds[i]);
+                            photos.setString(2, row.photos().get(order).trim());
+                            // The first photo of a row is its primary one
+                            photos.setBoolean(3, order == 0);
+                            photos.setInt(4, order + 1);
+                            photos.addBatch();
+                        }
+                    }
+                }
+                inventory.executeBatch();
+                photos.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    private static int[] insertProducts(Connection connection, List<NumberedRow> rows) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_PRODUCT, Statement.RETURN_GENERATED_KEYS)) {
+            for (NumberedRow numbered : rows) {
+                ImportRow row = numbered.row();
+                statement.setString(1, row.name().trim());
+                statement.setString(2, row.description());
+                statement.setBigDecimal(3, row.price());
+                statement.setString(4, row.team());
+                statement.setBoolean(5, Boolean.TRUE.equals(row.licenced()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+
+            int[] ids = new int[rows.size()];
+            int count = 0;
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                while (keys.next() && count < ids.length) {
+                    ids[count++] = keys.getInt(1);
+                }
+            }
+            if (count != ids.length) {
+                throw new SQLException("Driver returned " + count + " generated keys for " + ids.length + " products");
+            }
+            return ids;
+        }
+    }
+
+    private static String field(List<String> record, Integer column) {
+        if (column == null || column >= record.size()) {
+            return null;
+        }
+        String value = record.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static ProductInventory.Size parseSize(String size) {
+        try {
+            return ProductInventory.Size.valueOf(size.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown size or column: " + size);
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes" -> true;
+            case "false", "0", "no" -> false;
+            default -> throw new IllegalArgumentException("licenced must be true or false, was: " + value);
+        };
+    }
+
+    // One product of the feed with its stock per size and photo URLs
+    public record ImportRow(
+            String name,
+            String description,
+            BigDecimal price,
+            String team,
+            Boolean licenced,
+            Map<String, Integer> sizes,
+            List<String> photos
+    ) {
+    }
+
+    private record NumberedRow(int line, ImportRow row) {
+    }
+
+    private static final class Progress {
+        private final List<NumberedRow> batch = new ArrayList<>(BATCH_SIZE);
+        private final List<RowError> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+
+        private void reject(int line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+
+    public record RowError(
+            int line,
+            String message
+    ) {
+    }
+
+    public record ImportReport(
+            int imported,
+            int failed,
+            long elapsedMillis,
+            List<RowError> errors
+    ) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.football.RomanianFootballBackend.DTO.ProductDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+// Hot catalog responses kept as already-encoded JSON, rebuilt only after the catalog cache generation moves
+@Component
+public class CatalogSnapshots {
+
+    // Bodies smaller than this are not worth compressing
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.snapshot.gzip:true}")
+    private boolean gzipEnabled;
+
+    private volatile Snapshot allProducts;
+
+    private final Map<Integer, Snapshot> products = new ConcurrentHashMap<>();
+
+    public Snapshot getAllProducts() {
+        Snapshot snapshot = allProducts;
+        if (snapshot != null && snapshot.generation() == productCatalogCache.generation()) {
+            return snapshot;
+        }
+        long generation = productCatalogCache.generation();
+        List<ProductDTO> dtos = productService.getAllProducts();
+        snapshot = encode(dtos, generation);
+        if (productCatalogCache.generation() == generation) {
+            allProducts = snapshot;
+        }
+        return snapshot;
+    }
+
+    // Null when the product does not exist
+    public Snapshot getProduct(int id) {
+        Snapshot snapshot = products.get(id);
+        if (snapshot != null && snapshot.generation() == productCatalogCache.generation()) {
+            return snapshot;
+        }
+        long generation = productCatalogCache.generation();
+        ProductDTO dto = productService.getProductDTOById(id);
+        if (dto == null) {
+            products.remove(id);
+            return null;
+        }
+        snapshot = encode(dto, generation);
+        if (productCatalogCache.generation() == generation) {
+            products.put(id, snapshot);
+        }
+        return snapshot;
+    }
+
+    private Snapshot encode(Object body, long generation) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            byte[] gzip = gzipEnabled && json.length >= GZIP_MIN_BYTES ? gzip(json) : null;
+            return new Snapshot(json, gzip, generation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode catalog snapshot", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    public record Snapshot(
+            byte[] json,
+            byte[] gzip,
+            long generation
+    ) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.football.RomanianFootballBackend.Service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version stamps behind the catalog ETags; bumped only after the mutating transaction has committed
+@Component
+public class CatalogVersions {
+
+    // Distinguishes tags across restarts, since stamps start again from zero
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final Map<Integer, Long> photoVersions = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> inventoryVersions = new ConcurrentHashMap<>();
+
+    // Versions of the "all rows" endpoints, and the floor applied after a catalog-wide change
+    private volatile long allPhotosVersion;
+    private volatile long allInventoryVersion;
+    private volatile long resetVersion;
+
+    public String catalogTag(long generation, boolean gzip) {
+        return tag("c" + generation + (gzip ? "-gz" : ""));
+    }
+
+    public String photosTag(int productId) {
+        return tag("ph" + productId + "-" + Math.max(resetVersion, photoVersions.getOrDefault(productId, 0L)));
+    }
+
+    public String allPhotosTag() {
+        return tag("ph-" + Math.max(resetVersion, allPhotosVersion));
+    }
+
+    public String inventoryTag(int productId) {
+        return tag("in" + productId + "-" + inventoryVersion(productId));
+    }
+
+    public long inventoryVersion(int productId) {
+        return Math.max(resetVersion, inventoryVersions.getOrDefault(productId, 0L));
+    }
+
+    // The detail aggregate embeds catalog data (product and photos) and the product's stock
+    public String detailTag(int productId, long generation, long inventoryVersion) {
+        return tag("d" + productId + "-" + generation + "-" + inventoryVersion);
+    }
+
+    public String allInventoryTag() {
+        return tag("in-" + Math.max(resetVersion, allInventoryVersion));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        long version = clock.incrementAndGet();
+        if (event.affectsAll()) {
+            resetVersion = version;
+        } else {
+            photoVersions.put(event.productId(), version);
+        }
+        // The "all rows" responses embed the product itself
+        allPhotosVersion = version;
+        allInventoryVersion = version;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        long version = clock.incrementAndGet();
+        inventoryVersions.put(event.productId(), version);
+        allInventoryVersion = version;
+    }
+
+    private String tag(String version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+}
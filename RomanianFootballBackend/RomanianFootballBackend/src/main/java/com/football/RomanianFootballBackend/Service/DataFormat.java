@@ -0,0 +1,40 @@
+package com.football.RomanianFootballBackend.Service;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Wire formats for bulk catalog import and export
+public enum DataFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    DataFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    // Both formats are always written as UTF-8
+    public MediaType mediaType() {
+        return new MediaType(MediaType.parseMediaType(mediaType), StandardCharsets.UTF_8);
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    // Accepts "csv" / "ndjson" as well as their media types, parameters included
+    public static DataFormat of(String value) {
+        String normalized = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        for (DataFormat format : values()) {
+            if (normalized.equals(format.extension) || normalized.startsWith(format.mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported format: " + value + " (expected csv or ndjson)");
+    }
+}
@@ -0,0 +1,45 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.AddToCartDTO;
+import com.football.RomanianFootballBackend.DTO.CartBatchDTO;
+import com.football.RomanianFootballBackend.DTO.CartItemDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Every change goes straight to cart and cart_items, so there is never anything to write out
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "database", matchIfMissing = true)
+public class DatabaseCartStore implements CartStore {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartItemsService cartItemsService;
+
+    @Override
+    public CartItemDTO add(AddToCartDTO addToCartDTO) {
+        return cartItemsService.getCartItemDTOById(cartService.addItemToCart(addToCartDTO).getId());
+    }
+
+    @Override
+    public CartService.CartContents apply(Integer cartId, List<CartBatchDTO.CartOperationDTO> operations) {
+        return cartService.applyBatch(cartId, operations);
+    }
+
+    @Override
+    public List<CartItemDTO> getItemsByUserId(Integer userId) {
+        return cartItemsService.getCartItemsByUserId(userId);
+    }
+
+    @Override
+    public void detach(Integer cartId) {
+    }
+
+    @Override
+    public void detachByUserId(Integer userId) {
+    }
+}
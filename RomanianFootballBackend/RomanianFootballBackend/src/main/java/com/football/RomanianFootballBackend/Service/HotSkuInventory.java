@@ -0,0 +1,310 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.Entity.InventoryJournalCheckpoint;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.Repository.InventoryJournalCheckpointRepository;
+import com.football.RomanianFootballBackend.Repository.ProductInventoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Opt-in mode for launch-day SKUs, where one product_inventory row would otherwise serialize every checkout on
+// its row lock. A hot SKU's available quantity lives in striped in-memory counters that are authoritative for
+// reservations; each change is appended to a journal on disk before the order commits, and the journal is
+// flushed to product_inventory in periodic batches. On startup, whatever the journal holds past the database
+// checkpoint is replayed, and every SKU starts out cold again. A reservation is durable before its order commits,
+// so a crash in between leaves the journal with a decrement for an order that does not exist: records carry their
+// order id, and replay leaves out those of orders missing from the table. For the same reason an order's changes
+// only reach the table once its transaction is over (see complete()); until then flushes carry them forward.
+@Component
+public class HotSkuInventory {
+
+    private static final int MAX_STRIPES = 64;
+
+    private static final Logger log = LoggerFactory.getLogger(HotSkuInventory.class);
+
+    private static final String APPLY_DELTA =
+            "UPDATE product_inventory SET quantity = quantity + ? WHERE product_id = ? AND size = ?";
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    @Autowired
+    private InventoryJournalCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.hot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.hot.journal-dir:inventory-journal}")
+    private String journalDirectory;
+
+    private final int stripes = Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors());
+
+    private final Map<StockKey, StripedStock> counters = new ConcurrentHashMap<>();
+
+    // Opened with the first hot SKU and kept until shutdown
+    private volatile InventoryJournal journal;
+
+    private long recoveredSequence;
+
+    public enum Reservation {
+        RESERVED,
+        INSUFFICIENT,
+        // Not in hot mode (any more); the caller goes to the table
+        NOT_HOT
+    }
+
+    // Runs before any SKU can be hot, so nothing else is writing the journal yet
+    @PostConstruct
+    void recover() throws IOException {
+        long checkpoint = checkpointRepository.findById(InventoryJournalCheckpoint.ID)
+                .map(InventoryJournalCheckpoint::getLastSequence)
+                .orElse(0L);
+        InventoryJournal.Replay replay = InventoryJournal.replay(Path.of(journalDirectory), checkpoint);
+        if (!replay.segments().isEmpty()) {
+            // Caches are still empty at startup, so no change events are needed
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Integer> uncommitted = uncommittedOrders(replay.orderDeltas().keySet());
+                if (!uncommitted.isEmpty()) {
+                    log.warn("Leaving out the journaled stock changes of orders that never committed: {}", uncommitted);
+                }
+                apply(replay.deltasWithout(uncommitted), replay.lastSequence());
+            });
+            InventoryJournal.delete(replay.segments());
+        }
+        recoveredSequence = replay.lastSequence();
+    }
+
+    public boolean isHot(Integer productId, ProductInventory.Size size) {
+        return counters.containsKey(new StockKey(productId, size));
+    }
+
+    // Null when the SKU is not hot
+    public Integer available(StockKey key) {
+        StripedStock stock = counters.get(key);
+        return stock == null ? null : stock.available();
+    }
+
+    public Reservation tryReserve(StockKey key, int quantity, Integer orderId) {
+        StripedStock stock = counters.get(key);
+        if (stock == null || !stock.enter()) {
+            return Reservation.NOT_HOT;
+        }
+        try {
+            if (!stock.tryTake(quantity)) {
+                return Reservation.INSUFFICIENT;
+            }
+            try {
+                journal.append(key, -quantity, orderId);
+            } catch (RuntimeException e) {
+                stock.add(quantity);
+                throw e;
+            }
+            return Reservation.RESERVED;
+        } finally {
+            stock.exit();
+        }
+    }
+
+    // Puts back a reservation whose order did not commit. The journal record reaches the table even if the
+    // SKU has gone cold in the meantime.
+    public void release(StockKey key, int quantity, Integer orderId) {
+        journal.append(key, quantity, orderId);
+        StripedStock stock = counters.get(key);
+        if (stock != null) {
+            stock.add(quantity);
+        }
+    }
+
+    // Called once the transaction of an order that reserved or released hot units is over, either way
+    public void complete(Integer orderId) {
+        InventoryJournal current = journal;
+        if (current != null) {
+            current.complete(orderId);
+        }
+    }
+
+    // Called before an order with hot reservations commits; one disk force covers every checkout waiting here
+    public void awaitDurable() {
+        InventoryJournal current = journal;
+        if (current != null) {
+            current.sync(current.lastSequence());
+        }
+    }
+
+    public List<HotSkuStatus> getHotSkus() {
+        return counters.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(StockKey.LOCK_ORDER))
+                .map(entry -> new HotSkuStatus(entry.getKey().productId(), entry.getKey().size(),
+                        entry.getValue().available(), entry.getValue().stripes()))
+                .toList();
+    }
+
+    // Loads the row's quantity into counters. The row stays locked until the counters are in place, so a
+    // checkout that was already decrementing the table either finishes first or sees the SKU as hot.
+    public synchronized HotSkuStatus enable(Integer productId, ProductInventory.Size size) throws IOException {
+        if (!enabled) {
+            throw new IllegalStateException("Hot-SKU mode is turned off (inventory.hot.enabled)");
+        }
+        StockKey key = new StockKey(productId, size);
+        if (!counters.containsKey(key)) {
+            if (journal == null) {
+                journal = new InventoryJournal(Path.of(journalDirectory), recoveredSequence);
+            }
+            flushJournal(() -> lockRow(key), () -> {
+                // Read after the flush, which may just have applied changes to this very row. Units held for
+                // carts stay on the table; one released while the SKU is hot frees up once it is cold again.
+                Integer quantity = jdbcTemplate.queryForObject(
+                        "SELECT GREATEST(quantity - reserved, 0) FROM product_inventory WHERE product_id = ? AND size = ?",
+                        Integer.class, productId, size.name());
+                counters.put(key, new StripedStock(quantity, stripes));
+            });
+        }
+        return new HotSkuStatus(productId, size, counters.get(key).available(), stripes);
+    }
+
+    // Hands the SKU back to the table: no new reservations, in-flight ones finish, and the journal is flushed
+    // while the row is locked, so the first checkout to go to the table sees the final quantity
+    public synchronized void disable(Integer productId, ProductInventory.Size size) {
+        StockKey key = new StockKey(productId, size);
+        StripedStock stock = counters.get(key);
+        if (stock == null) {
+            return;
+        }
+        try {
+            flushJournal(() -> {
+                lockRow(key);
+                stock.close();
+            }, () -> counters.remove(key));
+        } catch (RuntimeException e) {
+            stock.reopen();
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.hot.flush-ms:1000}")
+    public synchronized void flush() {
+        if (journal != null) {
+            flushJournal(() -> {
+            }, () -> {
+            });
+        }
+    }
+
+    @PreDestroy
+    synchronized void shutdown() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        // Anything this misses is still in the journal and replayed on the next start
+        try {
+            flush();
+        } finally {
+            journal.close();
+        }
+    }
+
+    // Drains the journal into one transaction with the batched table updates and the new checkpoint.
+    // Segments are deleted only after that commits; a failed flush is retried with the next one.
+    private void flushJournal(Runnable beforeDrain, Runnable afterApply) {
+        InventoryJournal.Batch[] drained = new InventoryJournal.Batch[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                beforeDrain.run();
+                try {
+                    drained[0] = journal.drain();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (drained[0] != null) {
+                    apply(drained[0].deltas(), drained[0].lastSequence());
+                }
+                afterApply.run();
+            });
+        } catch (RuntimeException e) {
+            if (drained[0] != null) {
+                journal.restore(drained[0]);
+            }
+            throw e;
+        }
+        if (drained[0] == null) {
+            return;
+        }
+        try {
+            journal.discard(drained[0]);
+        } catch (IOException e) {
+            // Harmless: the checkpoint already marks these records as applied
+        }
+        drained[0].deltas().keySet().stream()
+                .map(StockKey::productId)
+                .distinct()
+                .forEach(id -> eventPublisher.publishEvent(new InventoryChangedEvent(id)));
+    }
+
+    private void apply(Map<StockKey, Integer> deltas, long lastSequence) {
+        List<Object[]> rows = deltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(StockKey.LOCK_ORDER))
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey().productId(), entry.getKey().size().name()})
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_DELTA, rows);
+        }
+        InventoryJournalCheckpoint checkpoint = new InventoryJournalCheckpoint();
+        checkpoint.setId(InventoryJournalCheckpoint.ID);
+        checkpoint.setLastSequence(lastSequence);
+        checkpointRepository.save(checkpoint);
+    }
+
+    // Orders that never made it to the table. An order deleted since it committed looks the same; its records are
+    // at most a flush interval old, so that takes a deletion within a second or so of a crash.
+    private List<Integer> uncommittedOrders(Set<Integer> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        Set<Integer> committed = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE id IN (" + String.join(",", Collections.nCopies(orderIds.size(), "?")) + ")",
+                Integer.class, orderIds.toArray()));
+        return orderIds.stream().filter(orderId -> !committed.contains(orderId)).sorted().toList();
+    }
+
+    private void lockRow(StockKey key) {
+        productInventoryRepository.lockByProductIdAndSize(key.productId(), key.size())
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No inventory for product " + key.productId() + " in size " + key.size()));
+    }
+
+    public record HotSkuStatus(
+            Integer productId,
+            ProductInventory.Size size,
+            int available,
+            int stripes
+    ) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+
+import java.util.List;
+
+// Thrown when checkout cannot reserve every line; carries what was asked for and what is left per (product, size)
+public class InsufficientStockException extends RuntimeException {
+
+    private final List<Shortage> shortages;
+
+    public InsufficientStockException(List<Shortage> shortages) {
+        super("Insufficient stock for " + shortages.size() + " item(s)");
+        this.shortages = shortages;
+    }
+
+    public List<Shortage> getShortages() {
+        return shortages;
+    }
+
+    public record Shortage(
+            Integer productId,
+            String productName,
+            ProductInventory.Size size,
+            int requested,
+            int available
+    ) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.football.RomanianFootballBackend.Service;
+
+// Published whenever stock rows of a product are added, changed or removed
+public record InventoryChangedEvent(Integer productId) {
+}
@@ -0,0 +1,272 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Append-only log of hot-SKU stock changes, one "sequence,productId,size,delta[,orderId[,carriedUpTo]]" line per
+// change. A change made for an order carries its id, so replay can tell the changes of orders that never committed.
+// Records are written to the current segment as they happen; sync() makes them durable with one force for
+// every caller waiting at that moment. drain() seals the segment and hands its net changes to the flusher,
+// and sealed segments are deleted once the database holds those changes.
+// An order's changes stay out of drain() until complete() is called for it, as the order may still roll back, or
+// never commit at all. drain() copies each open order's net changes past the segments it seals, marked with the
+// sequence they were carried up to: replay counts a copy only once the checkpoint has reached that sequence, and
+// the records it copies only while it has not.
+final class InventoryJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+
+    // Net change per SKU since the last drain; guarded by this
+    private final Map<StockKey, Integer> pending = new HashMap<>();
+    // Net change per SKU of each order still in flight; guarded by this
+    private final Map<Integer, Map<StockKey, Integer>> openOrders = new HashMap<>();
+    private final List<Path> sealed = new ArrayList<>();
+    private FileChannel segment;
+    private Path segmentPath;
+    private long segmentNumber;
+    private long segmentStart;
+    private long sequence;
+    private long drainedSequence;
+
+    private final Object syncLock = new Object();
+    private final AtomicLong durableSequence;
+
+    // Starts after the given sequence, which must already be covered by the database checkpoint
+    InventoryJournal(Path directory, long startSequence) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.segmentNumber = segments(directory).stream().mapToLong(InventoryJournal::segmentNumber).max().orElse(0);
+        this.sequence = startSequence;
+        this.drainedSequence = startSequence;
+        this.durableSequence = new AtomicLong(startSequence);
+        openSegment();
+    }
+
+    synchronized long append(StockKey key, int delta) {
+        return append(key, delta, null);
+    }
+
+    // A change with an order id opens the order, and is held back from drain() until complete()
+    synchronized long append(StockKey key, int delta, Integer orderId) {
+        long next = write(key, delta, orderId, null);
+        if (orderId == null) {
+            pending.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+        } else {
+            openOrders.computeIfAbsent(orderId, id -> new HashMap<>()).merge(key, delta, Integer::sum);
+        }
+        return next;
+    }
+
+    // The order's transaction is over; its net changes (none, for one that rolled back) go to the next drain
+    synchronized void complete(Integer orderId) {
+        Map<StockKey, Integer> changes = openOrders.remove(orderId);
+        if (changes != null) {
+            changes.forEach((key, delta) -> pending.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b));
+        }
+    }
+
+    private long write(StockKey key, int delta, Integer orderId, Long carriedUpTo) {
+        long next = sequence + 1;
+        String record = next + "," + key.productId() + "," + key.size() + "," + delta
+                + (orderId == null ? "" : "," + orderId) + (carriedUpTo == null ? "" : "," + carriedUpTo);
+        ByteBuffer line = ByteBuffer.wrap((record + "\n").getBytes(StandardCharsets.US_ASCII));
+        try {
+            while (line.hasRemaining()) {
+                segment.write(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the inventory journal", e);
+        }
+        sequence = next;
+        return next;
+    }
+
+    synchronized long lastSequence() {
+        return sequence;
+    }
+
+    // Group commit: whoever gets the lock forces everything appended so far, covering the callers queued behind it
+    void sync(long upTo) {
+        if (durableSequence.get() >= upTo) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence.get() >= upTo) {
+                return;
+            }
+            FileChannel channel;
+            long appended;
+            synchronized (this) {
+                channel = segment;
+                appended = sequence;
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // drain() sealed the segment in between, and forced it before closing
+                return;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not sync the inventory journal", e);
+            }
+            durableSequence.accumulateAndGet(appended, Math::max);
+        }
+    }
+
+    // Null when nothing was appended since the last drain
+    synchronized Batch drain() throws IOException {
+        if (sequence == drainedSequence && pending.isEmpty() && sealed.isEmpty()) {
+            return null;
+        }
+        if (sequence > segmentStart) {
+            segment.force(false);
+            segment.close();
+            durableSequence.accumulateAndGet(sequence, Math::max);
+            sealed.add(segmentPath);
+            openSegment();
+        }
+        long upTo = sequence;
+        // Durable before the checkpoint can move past the records they stand for
+        if (!openOrders.isEmpty()) {
+            openOrders.forEach((orderId, changes) -> changes.forEach((key, delta) -> {
+                if (delta != 0) {
+                    write(key, delta, orderId, upTo);
+                }
+            }));
+            segment.force(false);
+            durableSequence.accumulateAndGet(sequence, Math::max);
+        }
+        Batch batch = new Batch(upTo, Map.copyOf(pending), List.copyOf(sealed));
+        pending.clear();
+        drainedSequence = sequence;
+        return batch;
+    }
+
+    // The batch reached the database; its segments are no longer needed
+    synchronized void discard(Batch batch) throws IOException {
+        delete(batch.segments());
+        sealed.removeAll(batch.segments());
+    }
+
+    // The batch did not reach the database; fold it back in so the next drain retries it
+    synchronized void restore(Batch batch) {
+        batch.deltas().forEach((key, delta) -> pending.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        segment.force(false);
+        segment.close();
+    }
+
+    private void openSegment() throws IOException {
+        segmentNumber++;
+        segmentPath = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+        segment = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segmentStart = sequence;
+    }
+
+    // Net changes of every record after the checkpoint, in all and per order. A torn last line (crash mid-write,
+    // so no line end) ends its segment: cut short, it could still parse, with a wrong delta or order id.
+    // A carried copy counts instead of the records it copies once the checkpoint has reached its carriedUpTo.
+    static Replay replay(Path directory, long afterSequence) throws IOException {
+        Map<StockKey, Integer> deltas = new HashMap<>();
+        Map<Integer, Map<StockKey, Integer>> orderDeltas = new HashMap<>();
+        long last = afterSequence;
+        List<Path> segments = segments(directory);
+        for (Path path : segments) {
+            String[] lines = Files.readString(path, StandardCharsets.US_ASCII).split("\n", -1);
+            // The element after the last line end is empty unless the last line is torn
+            for (int i = 0; i < lines.length - 1; i++) {
+                String[] fields = lines[i].split(",");
+                long recordSequence;
+                StockKey key;
+                int delta;
+                Integer orderId;
+                Long carriedUpTo;
+                try {
+                    recordSequence = Long.parseLong(fields[0]);
+                    key = new StockKey(Integer.valueOf(fields[1]), ProductInventory.Size.valueOf(fields[2]));
+                    delta = Integer.parseInt(fields[3]);
+                    orderId = fields.length > 4 ? Integer.valueOf(fields[4]) : null;
+                    carriedUpTo = fields.length > 5 ? Long.valueOf(fields[5]) : null;
+                } catch (RuntimeException e) {
+                    break;
+                }
+                if (recordSequence <= afterSequence) {
+                    continue;
+                }
+                last = Math.max(last, recordSequence);
+                if (carriedUpTo == null || carriedUpTo <= afterSequence) {
+                    deltas.merge(key, delta, Integer::sum);
+                    if (orderId != null) {
+                        orderDeltas.computeIfAbsent(orderId, id -> new HashMap<>()).merge(key, delta, Integer::sum);
+                    }
+                }
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        // An order whose reservation was handed back nets out
+        orderDeltas.values().forEach(changes -> changes.values().removeIf(delta -> delta == 0));
+        orderDeltas.values().removeIf(Map::isEmpty);
+        return new Replay(last, deltas, orderDeltas, segments);
+    }
+
+    static void delete(List<Path> segments) throws IOException {
+        for (Path path : segments) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(InventoryJournal::segmentNumber))
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // Net changes up to lastSequence, and the sealed segments that hold them
+    record Batch(long lastSequence, Map<StockKey, Integer> deltas, List<Path> segments) {
+    }
+
+    // orderDeltas holds the net changes of each order whose records do not cancel out; they are part of deltas too
+    record Replay(long lastSequence, Map<StockKey, Integer> deltas, Map<Integer, Map<StockKey, Integer>> orderDeltas,
+                  List<Path> segments) {
+
+        // deltas without the changes of the given orders
+        Map<StockKey, Integer> deltasWithout(Collection<Integer> orderIds) {
+            Map<StockKey, Integer> kept = new HashMap<>(deltas);
+            orderIds.forEach(orderId -> orderDeltas.getOrDefault(orderId, Map.of())
+                    .forEach((key, delta) -> kept.merge(key, -delta, (a, b) -> a + b == 0 ? null : a + b)));
+            return kept;
+        }
+    }
+}
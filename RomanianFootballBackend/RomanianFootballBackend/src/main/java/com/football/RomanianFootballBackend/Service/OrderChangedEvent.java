@@ -0,0 +1,5 @@
+package com.football.RomanianFootballBackend.Service;
+
+// Published whenever an order is placed, changed or removed
+public record OrderChangedEvent(Integer orderId) {
+}
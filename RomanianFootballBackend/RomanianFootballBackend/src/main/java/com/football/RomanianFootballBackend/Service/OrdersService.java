@@ -5,19 +5,31 @@ import com.football.RomanianFootballBackend.DTO.OrderDTO;
 import com.football.RomanianFootballBackend.Entity.*;
 import com.football.RomanianFootballBackend.Repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import jakarta.persistence.EntityNotFoundException;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 public class OrdersService {
 
+    private static final String INSERT_ORDER_ITEM =
+            "INSERT INTO order_items (order_id, product_id, player, number, size, quantity, price) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
     @Autowired
     private OrdersRepository ordersRepository;
 
@@ -42,6 +54,21 @@ public class OrdersService {
     @Autowired
     private OrderItemsService orderItemsService;
 
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    @Autowired
+    private HotSkuInventory hotSkuInventory;
+
+    @Autowired
+    private CartHoldService cartHoldService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     public List<Orders> getAllOrders() {
         return ordersRepository.findAll();
     }
@@ -113,7 +140,7 @@ public class OrdersService {
                     .orElseThrow(() -> new EntityNotFoundException("Cart not found"));
 
             // Get cart items - make a copy to avoid concurrent modification
-            List<CartItems> cartItems = new ArrayList<>(cartItemsRepository.findByCartId(cart.getId()));
+            List<CartItems> cartItems = new ArrayList<>(cartItemsRepository.findWithProductByCartId(cart.getId()));
 
             if (cartItems.isEmpty()) {
                 throw new IllegalStateException("Cart is empty");
@@ -171,9 +198,9 @@ public class OrdersService {
                 orderItem.setPlayer(cartItem.getPlayer());
                 orderItem.setNumber(cartItem.getNumber());
                 orderItem.setPrice(cartItem.getPrice());
-
-                orderItems.add(orderItemsRepository.save(orderItem));
+                orderItems.add(orderItem);
             }
+            insertOrderItems(orderItems);
 
             // Disable the coupon if it was used
             if (discount != null) {
@@ -181,28 +208,164 @@ public class OrdersService {
                 discountRepository.save(discount);
             }
 
-            // Now clear the cart - delete cart items by ID to avoid concurrent modification
-            List<Integer> cartItemIds = cartItems.stream()
-                    .map(CartItems::getId)
-                    .toList();
-
-            for (Integer cartItemId : cartItemIds) {
-                cartItemsRepository.deleteById(cartItemId);
+            // Taken over before the lines go; the order consumes these units instead of releasing them
+            Map<StockKey, Integer> held = new HashMap<>();
+            for (CartItems cartItem : cartItems) {
+                int quantity = cartHoldService.claim(cartItem);
+                if (quantity > 0) {
+                    held.merge(new StockKey(cartItem.getProduct().getId(), cartItem.getSize()), quantity, Integer::sum);
+                }
             }
 
+            // Now clear the cart
+            cartItemsRepository.deleteByCartIdInBulk(cart.getId());
+
             // Reset cart total
             cart.setTotalPrice(BigDecimal.ZERO);
             cartRepository.save(cart);
 
-            // Set order items and return
-            order.setOrderItems(orderItems);
+            // Write everything else out first, so the stock rows are locked only for the last few statements
+            cartItemsRepository.flush();
+            reserveStock(order.getId(), cartItems, held);
+
+            eventPublisher.publishEvent(new OrderChangedEvent(order.getId()));
+
+            // Set order items and return; read back in one statement so the order holds managed rows with their ids
+            order.setOrderItems(orderItemsRepository.findByOrderId(order.getId()));
             return order;
 
+        } catch (InsufficientStockException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Error creating order: " + e.getMessage(), e);
         }
     }
 
+    // One JDBC batch for all the lines: IDENTITY ids keep Hibernate from batching inserts, so the rows go in through
+    // JdbcTemplate on the checkout's connection
+    private void insertOrderItems(List<OrderItems> orderItems) {
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM, orderItems.stream()
+                .map(item -> new Object[]{item.getOrders().getId(), item.getProduct().getId(), item.getPlayer(),
+                        item.getNumber(), item.getSize().name(), item.getQuantity(), item.getPrice()})
+                .toList());
+    }
+
+    // Conditional decrements instead of read-modify-write; the first shortage rolls the whole checkout back.
+    // SKUs in hot mode are taken from their in-memory counters instead of the table, except for units the cart
+    // held, which are always on the table.
+    private void reserveStock(Integer orderId, List<CartItems> cartItems, Map<StockKey, Integer> held) {
+        Map<StockKey, Integer> requested = new TreeMap<>(StockKey.LOCK_ORDER);
+        Map<Integer, String> productNames = new HashMap<>();
+        for (CartItems item : cartItems) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalStateException("Invalid quantity for " + item.getProduct().getName());
+            }
+            requested.merge(new StockKey(item.getProduct().getId(), item.getSize()), item.getQuantity(), Integer::sum);
+            productNames.put(item.getProduct().getId(), item.getProduct().getName());
+        }
+
+        Set<StockKey> taken = new HashSet<>();
+        Map<StockKey, Integer> hotTaken = new HashMap<>();
+        for (Map.Entry<StockKey, Integer> line : requested.entrySet()) {
+            if (!reserveLine(orderId, line.getKey(), line.getValue(), held.getOrDefault(line.getKey(), 0), hotTaken)) {
+                throw new InsufficientStockException(shortages(requested, held, taken, productNames));
+            }
+            taken.add(line.getKey());
+        }
+        requested.keySet().stream()
+                .map(StockKey::productId)
+                .distinct()
+                .forEach(productId -> eventPublisher.publishEvent(new InventoryChangedEvent(productId)));
+    }
+
+    private boolean reserveLine(Integer orderId, StockKey key, int quantity, int held, Map<StockKey, Integer> hotTaken) {
+        if (held > 0) {
+            boolean hot = hotSkuInventory.isHot(key.productId(), key.size());
+            int fromTable = hot ? held : quantity;
+            // One row per SKU; anything else is not a reservation this checkout can trust
+            if (productInventoryRepository.decrementStock(key.productId(), key.size(), fromTable, held) != 1) {
+                return false;
+            }
+            if (!hot && hotSkuInventory.isHot(key.productId(), key.size())) {
+                // Went hot while this waited for the row; the rest comes from the counters
+                productInventoryRepository.incrementStock(key.productId(), key.size(), quantity - held);
+                fromTable = held;
+            }
+            quantity -= fromTable;
+            if (quantity == 0) {
+                return true;
+            }
+        }
+        while (true) {
+            switch (hotSkuInventory.tryReserve(key, quantity, orderId)) {
+                case RESERVED -> {
+                    if (hotTaken.isEmpty()) {
+                        releaseOnRollback(orderId, hotTaken);
+                    }
+                    hotTaken.merge(key, quantity, Integer::sum);
+                    return true;
+                }
+                case INSUFFICIENT -> {
+                    return false;
+                }
+                case NOT_HOT -> {
+                    if (productInventoryRepository.decrementStock(key.productId(), key.size(), quantity, 0) != 1) {
+                        return false;
+                    }
+                    if (!hotSkuInventory.isHot(key.productId(), key.size())) {
+                        return true;
+                    }
+                    // The SKU went hot while this checkout waited for its row; take the units from the counters
+                    productInventoryRepository.incrementStock(key.productId(), key.size(), quantity);
+                }
+            }
+        }
+    }
+
+    // In-memory reservations are not part of the database transaction: they are made durable in the journal
+    // before the order commits, and handed back if it does not. The records carry the order id, so after a crash
+    // between the two, replay can tell the order never committed, and flushes leave them in the journal until then.
+    private void releaseOnRollback(Integer orderId, Map<StockKey, Integer> hotTaken) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                hotSkuInventory.awaitDurable();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status != STATUS_COMMITTED) {
+                        hotTaken.forEach((key, quantity) -> hotSkuInventory.release(key, quantity, orderId));
+                    }
+                } finally {
+                    // Only now may a flush take the order's changes to the table
+                    hotSkuInventory.complete(orderId);
+                }
+            }
+        });
+    }
+
+    // Only runs on the failure path; adds back what this checkout already took, since it is about to be rolled back,
+    // and what it held
+    private List<InsufficientStockException.Shortage> shortages(Map<StockKey, Integer> requested, Map<StockKey, Integer> held,
+                                                                Set<StockKey> taken, Map<Integer, String> productNames) {
+        List<InsufficientStockException.Shortage> shortages = new ArrayList<>();
+        requested.forEach((key, quantity) -> {
+            Integer hotAvailable = hotSkuInventory.available(key);
+            int available = hotAvailable != null ? hotAvailable
+                    : productInventoryRepository.findByProductIdAndSize(key.productId(), key.size())
+                    .map(inventory -> Math.max(inventory.getQuantity() - inventory.getReserved(), 0))
+                    .orElse(0);
+            available += taken.contains(key) ? quantity : held.getOrDefault(key, 0);
+            if (available < quantity) {
+                shortages.add(new InsufficientStockException.Shortage(key.productId(),
+                        productNames.get(key.productId()), key.size(), quantity, available));
+            }
+        });
+        return shortages;
+    }
+
     public Orders updateOrder(int id, Orders updatedOrder) {
         return ordersRepository.findById(id)
                 .map(existingOrder -> {
@@ -221,12 +384,15 @@ public class OrdersService {
                     if (updatedOrder.getPostalCode() != null) {
                         existingOrder.setPostalCode(updatedOrder.getPostalCode());
                     }
-                    return ordersRepository.save(existingOrder);
+                    Orders savedOrder = ordersRepository.save(existingOrder);
+                    eventPublisher.publishEvent(new OrderChangedEvent(savedOrder.getId()));
+                    return savedOrder;
                 })
                 .orElse(null);
     }
 
     public void deleteOrder(int id) {
         ordersRepository.deleteById(id);
+        eventPublisher.publishEvent(new OrderChangedEvent(id));
     }
-}
\ No newline at end of file
+}
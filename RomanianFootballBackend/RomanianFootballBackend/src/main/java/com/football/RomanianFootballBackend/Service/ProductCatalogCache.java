@@ -0,0 +1,144 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.ProductDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+@Component
+public class ProductCatalogCache {
+
+    private final int maxEntries;
+
+    // Bumped on every invalidation so a load that raced with a mutation is never stored
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // The whole catalog, in list order and by id, set and dropped together
+    private volatile Catalog catalog;
+
+    // Access-ordered map gives LRU eviction once maxEntries is reached
+    private final Map<Integer, ProductDTO> products;
+
+    public ProductCatalogCache(@Value("${catalog.cache.max-entries:1000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.products = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ProductDTO> eldest) {
+                if (size() > ProductCatalogCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public List<ProductDTO> getAllProducts(Supplier<List<ProductDTO>> loader) {
+        return getCatalog(loader).list();
+    }
+
+    // The whole catalog by id, for resolving many ids at once without a lookup (or a statement) per id
+    public Map<Integer, ProductDTO> getAllProductsById(Supplier<List<ProductDTO>> loader) {
+        return getCatalog(loader).byId();
+    }
+
+    private Catalog getCatalog(Supplier<List<ProductDTO>> loader) {
+        Catalog cached = catalog;
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+
+        long loadGeneration = generation.get();
+        List<ProductDTO> list = List.copyOf(loader.get());
+        Map<Integer, ProductDTO> byId = new HashMap<>(list.size() * 2);
+        list.forEach(product -> byId.put(product.getId(), product));
+        Catalog loaded = new Catalog(list, Collections.unmodifiableMap(byId));
+        synchronized (this) {
+            if (generation.get() == loadGeneration) {
+                catalog = loaded;
+                // The list load is also the cheapest way to warm the per-product entries
+                list.forEach(product -> products.put(product.getId(), product));
+            }
+        }
+        return loaded;
+    }
+
+    public ProductDTO getProduct(int id, IntFunction<ProductDTO> loader) {
+        ProductDTO cached;
+        synchronized (this) {
+            cached = products.get(id);
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+
+        long loadGeneration = generation.get();
+        ProductDTO loaded = loader.apply(id);
+        if (loaded != null) {
+            synchronized (this) {
+                if (generation.get() == loadGeneration) {
+                    products.put(id, loaded);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    // Runs after the mutating transaction commits, or immediately when there is none
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        synchronized (this) {
+            catalog = null;
+            if (event.affectsAll()) {
+                products.clear();
+            } else {
+                products.remove(event.productId());
+            }
+            // Bumped last so a reader that sees the new generation can no longer see the dropped entries
+            generation.incrementAndGet();
+        }
+    }
+
+    // Changes whenever any cached catalog data is invalidated; derived views compare against it
+    public long generation() {
+        return generation.get();
+    }
+
+    public CacheStats getStats() {
+        int size;
+        synchronized (this) {
+            size = products.size();
+        }
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), size, maxEntries, catalog != null);
+    }
+
+    private record Catalog(List<ProductDTO> list, Map<Integer, ProductDTO> byId) {
+    }
+
+    public record CacheStats(
+            long hits,
+            long misses,
+            long evictions,
+            int size,
+            int maxEntries,
+            boolean listCached
+    ) {
+    }
+}
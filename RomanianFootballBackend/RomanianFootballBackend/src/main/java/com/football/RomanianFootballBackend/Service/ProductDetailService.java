@@ -0,0 +1,91 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.ProductDTO;
+import com.football.RomanianFootballBackend.DTO.ProductDetailDTO;
+import com.football.RomanianFootballBackend.DTO.ProductPhotoDTO;
+import com.football.RomanianFootballBackend.Repository.ProductInventoryRepository;
+import com.football.RomanianFootballBackend.Repository.ProductPhotosRepository;
+import com.football.RomanianFootballBackend.Repository.WishlistItemsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Everything the product page needs in one response; the anonymous part is shared by all visitors
+@Service
+public class ProductDetailService {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductPhotosRepository productPhotosRepository;
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    @Autowired
+    private WishlistItemsRepository wishlistItemsRepository;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Value("${catalog.cache.max-entries:1000}")
+    private int maxEntries;
+
+    private final Map<Integer, CachedDetail> details = new ConcurrentHashMap<>();
+
+    public String detailTag(int productId) {
+        return catalogVersions.detailTag(productId, productCatalogCache.generation(),
+                catalogVersions.inventoryVersion(productId));
+    }
+
+    // Null when the product does not exist; the wishlist flag is only looked up for a signed-in user
+    public ProductDetailDTO getProductDetail(int productId, String userEmail) {
+        ProductDetailDTO detail = getPublicDetail(productId);
+        if (detail == null || userEmail == null) {
+            return detail;
+        }
+        boolean inWishlist = wishlistItemsRepository.existsByWishlistUserEmailAndProductId(userEmail, productId);
+        return new ProductDetailDTO(detail.getProduct(), detail.getPhotos(), detail.getSizes(), inWishlist);
+    }
+
+    private ProductDetailDTO getPublicDetail(int productId) {
+        // Versions are read before the data so a concurrent change can only make the entry look older
+        long generation = productCatalogCache.generation();
+        long inventoryVersion = catalogVersions.inventoryVersion(productId);
+        CachedDetail cached = details.get(productId);
+        if (cached != null && cached.generation() == generation && cached.inventoryVersion() == inventoryVersion) {
+            return cached.detail();
+        }
+
+        ProductDTO product = productService.getProductDTOById(productId);
+        if (product == null) {
+            details.remove(productId);
+            return null;
+        }
+        List<ProductPhotoDTO> photos = productPhotosRepository.findPhotoDTOsByProductId(productId);
+        List<ProductDetailDTO.SizeQuantityDTO> sizes = productInventoryRepository.findInStockByProductId(productId)
+                .stream()
+                .sorted(Comparator.comparing(ProductInventoryRepository.SizeStock::getSize))
+                .map(stock -> new ProductDetailDTO.SizeQuantityDTO(stock.getSize().name(), stock.getQuantity()))
+                .toList();
+        ProductDetailDTO detail = new ProductDetailDTO(product, photos, sizes, null);
+
+        if (details.size() >= maxEntries) {
+            details.clear();
+        }
+        details.put(productId, new CachedDetail(detail, generation, inventoryVersion));
+        return detail;
+    }
+
+    private record CachedDetail(ProductDetailDTO detail, long generation, long inventoryVersion) {
+    }
+}
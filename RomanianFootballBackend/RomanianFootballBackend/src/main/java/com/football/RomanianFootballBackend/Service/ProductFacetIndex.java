@@ -0,0 +1,222 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.ProductDTO;
+import com.football.RomanianFootballBackend.Repository.ProductInventoryRepository;
+import com.football.RomanianFootballBackend.Repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class ProductFacetIndex {
+
+    public static final String TEAM = "team";
+    public static final String LICENCED = "licenced";
+    public static final String PRICE = "price";
+    public static final String SIZE = "size";
+
+    private static final List<String> FACETS = List.of(TEAM, LICENCED, PRICE, SIZE);
+
+    // Upper bounds of the price buckets; anything above the last one falls in the open-ended bucket
+    private static final int[] PRICE_BOUNDS = {100, 200, 300, 500};
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Products are addressed by a dense ordinal so each facet value is one bit per product
+    private final Map<Integer, Integer> ordinals = new HashMap<>();
+    private final List<Integer> productIds = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+
+    // facet -> value -> products having that value
+    private final Map<String, Map<String, BitSet>> facets = new HashMap<>();
+
+    private volatile boolean built;
+
+    public FacetResult filter(Map<String, List<String>> selections) {
+        ensureBuilt();
+
+        lock.readLock().lock();
+        try {
+            // Values selected within one facet are OR-ed, different facets are AND-ed
+            Map<String, BitSet> facetMasks = new HashMap<>();
+            for (String facet : FACETS) {
+                List<String> values = selections.getOrDefault(facet, List.of());
+                if (!values.isEmpty()) {
+                    BitSet mask = new BitSet();
+                    for (String value : values) {
+                        BitSet bits = facets.getOrDefault(facet, Map.of()).get(value);
+                        if (bits != null) {
+                            mask.or(bits);
+                        }
+                    }
+                    facetMasks.put(facet, mask);
+                }
+            }
+
+            BitSet matches = (BitSet) live.clone();
+            facetMasks.values().forEach(matches::and);
+
+            List<Integer> ids = new ArrayList<>(matches.cardinality());
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                ids.add(productIds.get(ordinal));
+            }
+            Collections.sort(ids);
+
+            // Counts for a facet ignore that facet's own selection so alternatives stay visible
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                BitSet base = (BitSet) live.clone();
+                facetMasks.forEach((other, mask) -> {
+                    if (!other.equals(facet)) {
+                        base.and(mask);
+                    }
+                });
+                Map<String, Integer> valueCounts = new TreeMap<>();
+                facets.getOrDefault(facet, Map.of()).forEach((value, bits) -> {
+                    BitSet intersection = (BitSet) bits.clone();
+                    intersection.and(base);
+                    valueCounts.put(value, intersection.cardinality());
+                });
+                counts.put(facet, valueCounts);
+            }
+            return new FacetResult(ids, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.affectsAll()) {
+            if (built) {
+                rebuild();
+            }
+        } else {
+            reindexProduct(event.productId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        reindexProduct(event.productId());
+    }
+
+    private synchronized void reindexProduct(Integer productId) {
+        if (!built) {
+            return;
+        }
+        Optional<ProductDTO> product = productRepository.findProductDTOById(productId);
+        Set<String> sizes = new HashSet<>();
+        productInventoryRepository.findInStockByProductId(productId)
+                .forEach(stock -> sizes.add(stock.getSize().name()));
+
+        lock.writeLock().lock();
+        try {
+            removeProduct(productId);
+            product.ifPresent(dto -> addProduct(dto, sizes));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public synchronized void rebuild() {
+        List<ProductDTO> products = productRepository.findAllProductDTOs();
+        Map<Integer, Set<String>> sizes = new HashMap<>();
+        productInventoryRepository.findAllInStock().forEach(stock ->
+                sizes.computeIfAbsent(stock.getProductId(), id -> new HashSet<>()).add(stock.getSize().name()));
+
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            productIds.clear();
+            freeOrdinals.clear();
+            live.clear();
+            facets.clear();
+            products.forEach(product -> addProduct(product, sizes.getOrDefault(product.getId(), Set.of())));
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (!built) {
+            synchronized (this) {
+                if (!built) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private void addProduct(ProductDTO product, Set<String> inStockSizes) {
+        int ordinal;
+        if (freeOrdinals.isEmpty()) {
+            ordinal = productIds.size();
+            productIds.add(product.getId());
+        } else {
+            ordinal = freeOrdinals.pop();
+            productIds.set(ordinal, product.getId());
+        }
+        ordinals.put(product.getId(), ordinal);
+        live.set(ordinal);
+
+        if (product.getTeam() != null) {
+            bits(TEAM, product.getTeam()).set(ordinal);
+        }
+        bits(LICENCED, String.valueOf(Boolean.TRUE.equals(product.getLicenced()))).set(ordinal);
+        if (product.getPrice() != null) {
+            bits(PRICE, priceBucket(product.getPrice())).set(ordinal);
+        }
+        inStockSizes.forEach(size -> bits(SIZE, size).set(ordinal));
+    }
+
+    private void removeProduct(Integer productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        live.clear(ordinal);
+        for (Map<String, BitSet> values : facets.values()) {
+            values.values().removeIf(bits -> {
+                bits.clear(ordinal);
+                return bits.isEmpty();
+            });
+        }
+        productIds.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+    }
+
+    private BitSet bits(String facet, String value) {
+        return facets.computeIfAbsent(facet, f -> new HashMap<>()).computeIfAbsent(value, v -> new BitSet());
+    }
+
+    static String priceBucket(BigDecimal price) {
+        int lower = 0;
+        for (int bound : PRICE_BOUNDS) {
+            if (price.compareTo(BigDecimal.valueOf(bound)) < 0) {
+                return lower + "-" + bound;
+            }
+            lower = bound;
+        }
+        return lower + "+";
+    }
+
+    public record FacetResult(
+            List<Integer> productIds,
+            Map<String, Map<String, Integer>> counts
+    ) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.football.RomanianFootballBackend.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Gets product_inventory ready for uk_product_inventory_sku. Nothing used to stop a second row for the same product
+// and size, which checkout would then decrement twice. Runs before JPA starts (and so before the schema update):
+// each set of rows for one SKU is merged into its oldest row, with the quantities and reservations added up.
+@Configuration(proxyBeanMethods = false)
+public class ProductInventoryMigration implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductInventoryMigration.class);
+
+    // reserved comes with cart holds, which may be newer than the table being migrated
+    private static final String DUPLICATES =
+            "SELECT pi.id, pi.product_id, pi.size, pi.quantity, %s AS reserved FROM product_inventory pi " +
+                    "WHERE EXISTS (SELECT 1 FROM product_inventory other WHERE other.id <> pi.id " +
+                    "AND other.product_id = pi.product_id AND other.size = pi.size) ORDER BY pi.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Built here rather than injected: the shared JdbcTemplate and TransactionTemplate may need JPA, which waits for this
+    public ProductInventoryMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryAfterProductInventoryMigration() {
+        return new EntityManagerFactoryDependsOnPostProcessor(ProductInventoryMigration.class);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        migrate();
+    }
+
+    void migrate() {
+        Set<String> columns;
+        try {
+            columns = jdbcTemplate.query("SELECT * FROM product_inventory WHERE 1 = 0", result -> {
+                Set<String> names = new HashSet<>();
+                for (int i = 1; i <= result.getMetaData().getColumnCount(); i++) {
+                    names.add(result.getMetaData().getColumnLabel(i).toLowerCase(Locale.ROOT));
+                }
+                return names;
+            });
+        } catch (BadSqlGrammarException e) {
+            // No product_inventory yet (a new database); the schema update creates it with the constraint
+            return;
+        }
+        boolean reservations = columns.contains("reserved");
+        Integer merged = transactionTemplate.execute(status -> mergeDuplicates(reservations));
+        if (merged != null && merged > 0) {
+            log.info("Migrated product_inventory for uk_product_inventory_sku: {} duplicate rows merged", merged);
+        }
+    }
+
+    // Returns the number of rows merged away
+    private int mergeDuplicates(boolean reservations) {
+        Map<String, List<Map<String, Object>>> skus = new LinkedHashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(DUPLICATES.formatted(reservations ? "COALESCE(pi.reserved, 0)" : "0"))) {
+            skus.computeIfAbsent(row.get("product_id") + "|" + row.get("size"), key -> new ArrayList<>()).add(row);
+        }
+        if (skus.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> keep = new ArrayList<>();
+        List<Object[]> delete = new ArrayList<>();
+        skus.values().forEach(rows -> {
+            int quantity = 0;
+            int reserved = 0;
+            for (Map<String, Object> row : rows) {
+                quantity += ((Number) row.get("quantity")).intValue();
+                reserved += ((Number) row.get("reserved")).intValue();
+            }
+            // Rows come in id order, so the first is the oldest
+            keep.add(new Object[]{quantity, reserved, rows.get(0).get("id")});
+            rows.subList(1, rows.size()).forEach(row -> delete.add(new Object[]{row.get("id")}));
+        });
+        jdbcTemplate.batchUpdate("DELETE FROM product_inventory WHERE id = ?", delete);
+        jdbcTemplate.batchUpdate("UPDATE product_inventory SET quantity = ?" + (reservations ? ", reserved = ?" : "")
+                + " WHERE id = ?", reservations ? keep : keep.stream().map(row -> new Object[]{row[0], row[2]}).toList());
+        return delete.size();
+    }
+}
@@ -1,19 +1,32 @@
 package com.football.RomanianFootballBackend.Service;
 
+import com.football.RomanianFootballBackend.DTO.SizeAvailabilityDTO;
 import com.football.RomanianFootballBackend.Entity.ProductInventory;
 import com.football.RomanianFootballBackend.Repository.ProductInventoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductInventoryService {
 
+    // Enough for any listing page, small enough to keep the IN list cheap
+    static final int MAX_AVAILABILITY_PRODUCTS = 500;
+
     @Autowired
     private ProductInventoryRepository productInventoryRepository;
 
+    @Autowired
+    private HotSkuInventory hotSkuInventory;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<ProductInventory> getAllProductInventories() {
         return productInventoryRepository.findAll();
     }
@@ -28,15 +41,24 @@ public class ProductInventoryService {
 
     // Method to check if a specific size is available for a product
     public boolean isSizeAvailable(Integer productId, ProductInventory.Size size) {
+        Integer hotAvailable = hotSkuInventory.available(new StockKey(productId, size));
+        if (hotAvailable != null) {
+            return hotAvailable > 0;
+        }
         return productInventoryRepository.findByProductIdAndSize(productId, size)
-                .map(inventory -> inventory.getQuantity() > 0)
+                .map(inventory -> unreserved(inventory) > 0)
                 .orElse(false);
     }
 
     // Method to get available quantity for a specific size
     public int getAvailableQuantity(Integer productId, ProductInventory.Size size) {
+        // A hot SKU's row lags behind its counters until the next journal flush
+        Integer hotAvailable = hotSkuInventory.available(new StockKey(productId, size));
+        if (hotAvailable != null) {
+            return hotAvailable;
+        }
         return productInventoryRepository.findByProductIdAndSize(productId, size)
-                .map(ProductInventory::getQuantity)
+                .map(ProductInventoryService::unreserved)
                 .orElse(0);
     }
 
@@ -45,18 +67,46 @@ public class ProductInventoryService {
         return inventories.stream()
             .map(inventory -> new InventoryResponse(
                 inventory.getSize(),
-                inventory.getQuantity() > 0
+                availableQuantity(inventory) > 0
             ))
             .collect(Collectors.toList());
     }
 
+    // Every size of every requested product from one grouped query; unknown products come back with no stock
+    public List<SizeAvailabilityDTO> getAvailability(List<Integer> productIds) {
+        Map<Integer, SizeAvailabilityDTO> availability = new LinkedHashMap<>();
+        for (Integer productId : productIds) {
+            if (productId == null) {
+                throw new IllegalArgumentException("Product ids must not be null");
+            }
+            availability.computeIfAbsent(productId, SizeAvailabilityDTO::new);
+        }
+        if (availability.size() > MAX_AVAILABILITY_PRODUCTS) {
+            throw new IllegalArgumentException("At most " + MAX_AVAILABILITY_PRODUCTS + " products per request");
+        }
+        if (availability.isEmpty()) {
+            return List.of();
+        }
+        for (ProductInventoryRepository.SizeStock stock : productInventoryRepository.sumStockByProductIds(availability.keySet())) {
+            Integer hotAvailable = hotSkuInventory.available(new StockKey(stock.getProductId(), stock.getSize()));
+            availability.get(stock.getProductId())
+                    .addQuantity(stock.getSize(), hotAvailable != null ? hotAvailable : Math.max(stock.getQuantity(), 0));
+        }
+        return List.copyOf(availability.values());
+    }
+
     public ProductInventory addProductInventory(ProductInventory productInventory) {
-        return productInventoryRepository.save(productInventory);
+        rejectIfTaken(productInventory, null);
+        ProductInventory savedInventory = productInventoryRepository.save(productInventory);
+        eventPublisher.publishEvent(new InventoryChangedEvent(savedInventory.getProduct().getId()));
+        return savedInventory;
     }
 
     public ProductInventory updateProductInventory(int id, ProductInventory updatedProductInventory) {
         return productInventoryRepository.findById(id)
                 .map(existingProductInventory -> {
+                    rejectIfHot(existingProductInventory);
+                    Integer previousProductId = existingProductInventory.getProduct().getId();
                     if (updatedProductInventory.getProduct() != null) {
                         existingProductInventory.setProduct(updatedProductInventory.getProduct());
                     }
@@ -66,14 +116,54 @@ public class ProductInventoryService {
                     if (updatedProductInventory.getSize() != null) {
                         existingProductInventory.setSize(updatedProductInventory.getSize());
                     }
+                    rejectIfTaken(existingProductInventory, id);
 
-                    return productInventoryRepository.save(existingProductInventory);
+                    ProductInventory savedInventory = productInventoryRepository.save(existingProductInventory);
+                    eventPublisher.publishEvent(new InventoryChangedEvent(previousProductId));
+                    if (!previousProductId.equals(savedInventory.getProduct().getId())) {
+                        eventPublisher.publishEvent(new InventoryChangedEvent(savedInventory.getProduct().getId()));
+                    }
+                    return savedInventory;
                 })
                 .orElse(null);
     }
 
     public void deleteProductInventory(int id) {
-        productInventoryRepository.deleteById(id);
+        productInventoryRepository.findById(id).ifPresent(inventory -> {
+            rejectIfHot(inventory);
+            productInventoryRepository.delete(inventory);
+            eventPublisher.publishEvent(new InventoryChangedEvent(inventory.getProduct().getId()));
+        });
+    }
+
+    // A product has one row per size; stock for a size it already has goes on that row
+    private void rejectIfTaken(ProductInventory inventory, Integer ownId) {
+        if (inventory.getProduct() == null || inventory.getSize() == null) {
+            return;
+        }
+        productInventoryRepository.findByProductIdAndSize(inventory.getProduct().getId(), inventory.getSize())
+                .filter(existing -> !existing.getId().equals(ownId))
+                .ifPresent(existing -> {
+                    throw new IllegalArgumentException("Product " + inventory.getProduct().getId()
+                            + " already has inventory in size " + inventory.getSize() + " (id " + existing.getId() + ")");
+                });
+    }
+
+    private int availableQuantity(ProductInventory inventory) {
+        Integer hotAvailable = hotSkuInventory.available(new StockKey(inventory.getProduct().getId(), inventory.getSize()));
+        return hotAvailable != null ? hotAvailable : unreserved(inventory);
+    }
+
+    // Units held for carts are not available to anyone else
+    private static int unreserved(ProductInventory inventory) {
+        return Math.max(inventory.getQuantity() - inventory.getReserved(), 0);
+    }
+
+    // The counters own a hot SKU's quantity; overwriting the row would be undone by the next flush
+    private void rejectIfHot(ProductInventory inventory) {
+        if (hotSkuInventory.isHot(inventory.getProduct().getId(), inventory.getSize())) {
+            throw new IllegalStateException("Inventory " + inventory.getId() + " is in hot-SKU mode; disable it first");
+        }
     }
 
     public record InventoryResponse(
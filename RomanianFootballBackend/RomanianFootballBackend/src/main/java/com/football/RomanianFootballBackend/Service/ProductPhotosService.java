@@ -4,6 +4,7 @@ import com.football.RomanianFootballBackend.Entity.ProductPhotos;
 import com.football.RomanianFootballBackend.Repository.ProductPhotosRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,6 +14,9 @@ public class ProductPhotosService {
     @Autowired
     private ProductPhotosRepository productPhotosRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<ProductPhotos> getAllPhotos() {
         return productPhotosRepository.findAll();
     }
@@ -27,13 +31,17 @@ public class ProductPhotosService {
         if (Boolean.TRUE.equals(newPhoto.getIsPrimary())) {
             updateExistingPrimaryPhoto(newPhoto.getProduct().getId());
         }
-        return productPhotosRepository.save(newPhoto);
+        ProductPhotos savedPhoto = productPhotosRepository.save(newPhoto);
+        eventPublisher.publishEvent(new CatalogChangedEvent(savedPhoto.getProduct().getId()));
+        return savedPhoto;
     }
 
     @Transactional
     public ProductPhotos updatePhoto(int id, ProductPhotos updatedPhoto) {
         return productPhotosRepository.findById(id)
                 .map(existingPhoto -> {
+                    Integer previousProductId = existingPhoto.getProduct().getId();
+
                     // If setting this photo as primary, update any existing primary photo
                     if (Boolean.TRUE.equals(updatedPhoto.getIsPrimary())) {
                         updateExistingPrimaryPhoto(existingPhoto.getProduct().getId());
@@ -51,7 +59,12 @@ public class ProductPhotosService {
                         existingPhoto.setDisplayOrder(updatedPhoto.getDisplayOrder());
                     }
 
-                    return productPhotosRepository.save(existingPhoto);
+                    ProductPhotos savedPhoto = productPhotosRepository.save(existingPhoto);
+                    eventPublisher.publishEvent(new CatalogChangedEvent(previousProductId));
+                    if (!previousProductId.equals(savedPhoto.getProduct().getId())) {
+                        eventPublisher.publishEvent(new CatalogChangedEvent(savedPhoto.getProduct().getId()));
+                    }
+                    return savedPhoto;
                 })
                 .orElse(null);
     }
@@ -66,6 +79,9 @@ public class ProductPhotosService {
 
     @Transactional
     public void deletePhoto(int id) {
-        productPhotosRepository.deleteById(id);
+        productPhotosRepository.findById(id).ifPresent(photo -> {
+            productPhotosRepository.delete(photo);
+            eventPublisher.publishEvent(new CatalogChangedEvent(photo.getProduct().getId()));
+        });
     }
 }
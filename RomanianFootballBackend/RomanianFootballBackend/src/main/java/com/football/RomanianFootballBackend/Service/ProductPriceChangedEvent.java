@@ -0,0 +1,7 @@
+package com.football.RomanianFootballBackend.Service;
+
+import java.math.BigDecimal;
+
+// Published when a product's price changes, besides the CatalogChangedEvent; open carts are repriced from it
+public record ProductPriceChangedEvent(Integer productId, BigDecimal price) {
+}
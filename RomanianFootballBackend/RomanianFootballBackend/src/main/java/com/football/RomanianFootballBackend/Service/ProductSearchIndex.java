@@ -0,0 +1,320 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.ProductDTO;
+import com.football.RomanianFootballBackend.Repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+@Component
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int TEAM_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Edit distance tolerated per query token in fuzzy mode: none below 3 characters, one up to 5, two beyond
+    private static final int ONE_EDIT_MIN_LENGTH = 3;
+    private static final int TWO_EDITS_MIN_LENGTH = 6;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // token -> (productId -> field weight); sorted so prefix lookups are a range scan
+    private final NavigableMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+
+    // productId -> tokens it was indexed under, needed to remove a product incrementally
+    private final Map<Integer, Set<String>> productTokens = new HashMap<>();
+
+    // Name and team tokens for fuzzy lookups; removed tokens stay until the tree is rebuilt and are skipped
+    private TermTree fuzzyTerms = new TermTree();
+    private int droppedTokens;
+
+    private volatile boolean built;
+
+    public List<Integer> search(String query, int limit) {
+        return search(query, limit, false);
+    }
+
+    // Fuzzy mode also accepts name and team tokens a few edits away ("barcellona", "liverpol")
+    public List<Integer> search(String query, int limit, boolean fuzzy) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+        ensureBuilt();
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = null;
+            for (String queryToken : queryTokens) {
+                Map<Integer, Double> tokenScores = scoreToken(queryToken, fuzzy);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // Every query token has to match, so keep only products seen for all of them
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Integer, Double> scoreToken(String queryToken, boolean fuzzy) {
+        Map<Integer, Double> scores = new HashMap<>();
+        // All indexed tokens starting with the query token; exact matches rank above longer completions
+        for (Map.Entry<String, Map<Integer, Integer>> entry
+                : postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false).entrySet()) {
+            double closeness = (double) queryToken.length() / entry.getKey().length();
+            double boost = closeness == 1.0 ? 2.0 : closeness;
+            entry.getValue().forEach((productId, weight) -> scores.merge(productId, weight * boost, Math::max));
+        }
+        if (fuzzy) {
+            fuzzyTerms.within(queryToken, maxEdits(queryToken), (term, distance) -> {
+                Map<Integer, Integer> products = postings.get(term);
+                if (distance == 0 || products == null) {
+                    return;
+                }
+                double boost = 1.0 / (1 + distance);
+                products.forEach((productId, weight) -> {
+                    // Descriptions are too noisy to match approximately
+                    if (weight >= TEAM_WEIGHT) {
+                        scores.merge(productId, weight * boost, Math::max);
+                    }
+                });
+            });
+        }
+        return scores;
+    }
+
+    private static int maxEdits(String token) {
+        if (token.length() >= TWO_EDITS_MIN_LENGTH) {
+            return 2;
+        }
+        return token.length() >= ONE_EDIT_MIN_LENGTH ? 1 : 0;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (!built) {
+            return;
+        }
+        if (event.affectsAll()) {
+            rebuild();
+            return;
+        }
+        Optional<ProductDTO> product = productRepository.findProductDTOById(event.productId());
+        lock.writeLock().lock();
+        try {
+            removeProduct(event.productId());
+            product.ifPresent(this::addProduct);
+            if (droppedTokens > fuzzyTerms.size()) {
+                rebuildFuzzyTerms();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public synchronized void rebuild() {
+        List<ProductDTO> products = productRepository.findAllProductDTOs();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            productTokens.clear();
+            fuzzyTerms = new TermTree();
+            droppedTokens = 0;
+            products.forEach(this::addProduct);
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (!built) {
+            synchronized (this) {
+                if (!built) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private void addProduct(ProductDTO product) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(product.getName()).forEach(token -> weights.merge(token, NAME_WEIGHT, Math::max));
+        tokenize(product.getTeam()).forEach(token -> weights.merge(token, TEAM_WEIGHT, Math::max));
+        tokenize(product.getDescription()).forEach(token -> weights.merge(token, DESCRIPTION_WEIGHT, Math::max));
+
+        weights.forEach((token, weight) -> postings.computeIfAbsent(token, t -> new HashMap<>())
+                .put(product.getId(), weight));
+        productTokens.put(product.getId(), weights.keySet());
+        weights.forEach((token, weight) -> {
+            if (weight >= TEAM_WEIGHT) {
+                fuzzyTerms.add(token);
+            }
+        });
+    }
+
+    // Drops the tokens left behind by removed or renamed products
+    private void rebuildFuzzyTerms() {
+        TermTree terms = new TermTree();
+        postings.forEach((token, products) -> {
+            if (products.values().stream().anyMatch(weight -> weight >= TEAM_WEIGHT)) {
+                terms.add(token);
+            }
+        });
+        fuzzyTerms = terms;
+        droppedTokens = 0;
+    }
+
+    private void removeProduct(Integer productId) {
+        Set<String> tokens = productTokens.remove(productId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Map<Integer, Integer> products = postings.get(token);
+            products.remove(productId);
+            if (products.isEmpty()) {
+                postings.remove(token);
+                droppedTokens++;
+            }
+        }
+    }
+
+    // Lower-cases and folds diacritics (ș/ş -> s, ț/ţ -> t, ă/â -> a, î -> i) before splitting into words
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(TOKEN_SEPARATORS.split(folded.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    // BK-tree: children are keyed by their distance to the parent, so the triangle inequality
+    // limits a lookup within k edits to the children between d - k and d + k
+    private static final class TermTree {
+        private Node root;
+        private int size;
+
+        private void add(String term) {
+            if (root == null) {
+                root = new Node(term);
+                size++;
+                return;
+            }
+            Node node = root;
+            while (true) {
+                int distance = levenshtein(term, node.term);
+                if (distance == 0) {
+                    return;
+                }
+                Node child = node.child(distance);
+                if (child == null) {
+                    node.setChild(distance, new Node(term));
+                    size++;
+                    return;
+                }
+                node = child;
+            }
+        }
+
+        private void within(String query, int maxDistance, TermConsumer consumer) {
+            if (root == null) {
+                return;
+            }
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                int distance = levenshtein(query, node.term);
+                if (distance <= maxDistance) {
+                    consumer.accept(node.term, distance);
+                }
+                int last = Math.min(distance + maxDistance, node.children.length - 1);
+                for (int d = Math.max(1, distance - maxDistance); d <= last; d++) {
+                    if (node.children[d] != null) {
+                        pending.push(node.children[d]);
+                    }
+                }
+            }
+        }
+
+        private int size() {
+            return size;
+        }
+    }
+
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private final String term;
+        private Node[] children = NO_CHILDREN;
+
+        private Node(String term) {
+            this.term = term;
+        }
+
+        private Node child(int distance) {
+            return distance < children.length ? children[distance] : null;
+        }
+
+        private void setChild(int distance, Node child) {
+            if (distance >= children.length) {
+                children = Arrays.copyOf(children, distance + 1);
+            }
+            children[distance] = child;
+        }
+    }
+
+    @FunctionalInterface
+    private interface TermConsumer {
+        void accept(String term, int distance);
+    }
+}
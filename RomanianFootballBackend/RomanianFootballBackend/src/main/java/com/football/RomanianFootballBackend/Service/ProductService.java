@@ -1,30 +1,138 @@
 package com.football.RomanianFootballBackend.Service;
 
 import com.football.RomanianFootballBackend.DTO.ProductDTO;
+import com.football.RomanianFootballBackend.DTO.ProductFilterDTO;
+import com.football.RomanianFootballBackend.DTO.ProductPageDTO;
 import com.football.RomanianFootballBackend.Entity.Product;
 import com.football.RomanianFootballBackend.Entity.ProductPhotos;
 import com.football.RomanianFootballBackend.Repository.ProductRepository;
 import com.football.RomanianFootballBackend.Repository.ProductPhotosRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
 @Service
 public class ProductService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final BigDecimal MIN_PRICE = BigDecimal.valueOf(-1);
+    private static final int SEARCH_LIMIT = 50;
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private ProductPhotosRepository productPhotosRepository;
 
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private ProductSuggestTrie productSuggestTrie;
+
     public List<ProductDTO> getAllProducts() {
-        List<Product> products = productRepository.findAll();
-        return products.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // One statement for the whole catalog, photos are resolved in the same query
+        return productCatalogCache.getAllProducts(() -> toWebPaths(productRepository.findAllProductDTOs()));
+    }
+
+    public ProductDTO getProductDTOById(int id) {
+        return productCatalogCache.getProduct(id, productId -> productRepository.findProductDTOById(productId)
+                .map(dto -> {
+                    dto.setPhotoUrl(ProductPhotos.toWebPath(dto.getPhotoUrl()));
+                    return dto;
+                })
+                .orElse(null));
+    }
+
+    public ProductPageDTO getProductPage(String after, int limit, String sort) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        String sortKey = sort == null ? "id" : sort;
+        String[] cursor = decodeCursor(after, sortKey);
+        Integer afterId = cursor == null ? 0 : Integer.valueOf(cursor[1]);
+
+        // Fetch one extra row to know whether another page follows
+        Limit fetch = Limit.of(pageSize + 1);
+        // A cursor without a sort value is still among the rows that have none
+        boolean inNulls = cursor == null || cursor.length == 2;
+        List<ProductDTO> rows = switch (sortKey) {
+            case "id" -> productRepository.findPageById(afterId, fetch);
+            case "price" -> inNulls
+                    ? afterNulls(productRepository.findPageWithoutPrice(afterId, fetch), fetch,
+                    rest -> productRepository.findPageByPrice(MIN_PRICE, 0, rest))
+                    : productRepository.findPageByPrice(new BigDecimal(cursor[2]), afterId, fetch);
+            case "name" -> inNulls
+                    ? afterNulls(productRepository.findPageWithoutName(afterId, fetch), fetch,
+                    rest -> productRepository.findPageByName("", 0, rest))
+                    : productRepository.findPageByName(cursor[2], afterId, fetch);
+            default -> throw new IllegalArgumentException("Unsupported sort key: " + sortKey);
+        };
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductDTO> items = toWebPaths(hasMore ? rows.subList(0, pageSize) : rows);
+        String nextCursor = hasMore ? encodeCursor(sortKey, items.getLast()) : null;
+        return new ProductPageDTO(items, nextCursor, hasMore);
+    }
+
+    // Fills up a page that ran out of rows without a sort value with the first keyed rows
+    private List<ProductDTO> afterNulls(List<ProductDTO> nulls, Limit fetch, Function<Limit, List<ProductDTO>> keyed) {
+        if (nulls.size() >= fetch.max()) {
+            return nulls;
+        }
+        List<ProductDTO> rows = new ArrayList<>(nulls);
+        rows.addAll(keyed.apply(Limit.of(fetch.max() - nulls.size())));
+        return rows;
+    }
+
+    // Cursors are opaque to clients: base64url of "sortKey|id|sortValue", or "sortKey|id" when the row has no value
+    private String encodeCursor(String sortKey, ProductDTO last) {
+        String value = switch (sortKey) {
+            case "price" -> last.getPrice() == null ? null : last.getPrice().toPlainString();
+            case "name" -> last.getName();
+            default -> "";
+        };
+        String raw = sortKey + "|" + last.getId() + (value == null ? "" : "|" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor, String sortKey) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length < 2 || !parts[0].equals(sortKey)) {
+                throw new IllegalArgumentException("Cursor does not match sort key " + sortKey);
+            }
+            Integer.parseInt(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + e.getMessage());
+        }
+    }
+
+    private List<ProductDTO> toWebPaths(List<ProductDTO> products) {
+        products.forEach(dto -> dto.setPhotoUrl(ProductPhotos.toWebPath(dto.getPhotoUrl())));
+        return products;
     }
 
     ProductDTO convertToDTO(Product product) {
@@ -64,14 +172,41 @@ public class ProductService {
     }
 
     public List<ProductDTO> getProductsByName(String name) {
-        List<Product> products = productRepository.findByNameContaining(name);
-        return products.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return getProductsByName(name, false);
+    }
+
+    // The best SEARCH_LIMIT hits at most. Served from the in-memory index, the DTOs from the cached catalog.
+    public List<ProductDTO> getProductsByName(String name, boolean fuzzy) {
+        return resolve(productSearchIndex.search(name, SEARCH_LIMIT, fuzzy));
+    }
+
+    public List<ProductSuggestTrie.Suggestion> suggest(String prefix, int limit) {
+        return productSuggestTrie.suggest(prefix, limit);
+    }
+
+    // One page of the matches, at most MAX_PAGE_SIZE; the facet counts and the total cover all of them
+    public ProductFilterDTO filterProducts(Map<String, List<String>> selections, int offset, int limit) {
+        ProductFacetIndex.FacetResult result = productFacetIndex.filter(selections);
+        List<Integer> ids = result.productIds();
+        int from = Math.clamp(offset, 0, ids.size());
+        int to = Math.min(ids.size(), from + Math.clamp(limit, 1, MAX_PAGE_SIZE));
+        return new ProductFilterDTO(resolve(ids.subList(from, to)), result.counts(), ids.size());
+    }
+
+    // Looked up in the cached catalog as a whole: the per-product cache is an LRU that many ids would churn
+    private List<ProductDTO> resolve(List<Integer> ids) {
+        Map<Integer, ProductDTO> catalog = productCatalogCache.getAllProductsById(
+                () -> toWebPaths(productRepository.findAllProductDTOs()));
+        return ids.stream()
+                .map(catalog::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     public Product addProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(savedProduct.getId()));
+        return savedProduct;
     }
 
     public Product updateProduct(int id, Product updatedProduct) {
@@ -83,6 +218,9 @@ public class ProductService {
                     if (updatedProduct.getDescription() != null) {
                         existingProduct.setDescription(updatedProduct.getDescription());
                     }
+                    boolean priceChanged = updatedProduct.getPrice() != null
+                            && (existingProduct.getPrice() == null
+                            || updatedProduct.getPrice().compareTo(existingProduct.getPrice()) != 0);
                     if (updatedProduct.getPrice() != null) {
                         existingProduct.setPrice(updatedProduct.getPrice());
                     }
@@ -92,12 +230,18 @@ public class ProductService {
                     if (updatedProduct.getLicenced() != null) {
                         existingProduct.setLicenced(updatedProduct.getLicenced());
                     }
-                    return productRepository.save(existingProduct);
+                    Product savedProduct = productRepository.save(existingProduct);
+                    eventPublisher.publishEvent(new CatalogChangedEvent(id));
+                    if (priceChanged) {
+                        eventPublisher.publishEvent(new ProductPriceChangedEvent(id, savedProduct.getPrice()));
+                    }
+                    return savedProduct;
                 })
                 .orElse(null);
     }
 
     public void deleteProduct(int id) {
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(id));
     }
 }
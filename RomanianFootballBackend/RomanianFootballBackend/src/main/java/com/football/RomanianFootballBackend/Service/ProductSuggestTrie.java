@@ -0,0 +1,322 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.ProductDTO;
+import com.football.RomanianFootballBackend.Repository.OrderItemsRepository;
+import com.football.RomanianFootballBackend.Repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class ProductSuggestTrie {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Names are reachable from the start of each of their first few words ("city" finds "Manchester City")
+    private static final int MAX_WORD_STARTS = 6;
+
+    private static final Comparator<Entry> BY_POPULARITY = Comparator.comparingLong(Entry::popularity).reversed()
+            .thenComparing(Entry::text);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderItemsRepository orderItemsRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node();
+    private final Map<Integer, Entry> productEntries = new HashMap<>();
+    private final Map<String, Set<Integer>> teamProducts = new HashMap<>();
+    private final Map<String, Entry> teamEntries = new HashMap<>();
+    private Map<Integer, Long> sales = new HashMap<>();
+
+    private volatile boolean built;
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = String.join(" ", ProductSearchIndex.tokenize(prefix));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        ensureBuilt();
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            // Each node already holds its subtree's best entries, so no traversal is needed
+            return Arrays.stream(node.top)
+                    .limit(Math.clamp(limit, 0, MAX_SUGGESTIONS))
+                    .map(entry -> new Suggestion(entry.text(), entry.type(), entry.productId()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (!built) {
+            return;
+        }
+        if (event.affectsAll()) {
+            rebuild();
+            return;
+        }
+        Optional<ProductDTO> product = productRepository.findProductDTOById(event.productId());
+        lock.writeLock().lock();
+        try {
+            removeProduct(event.productId());
+            product.ifPresent(this::addProduct);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Popularity comes from sales, which change with every order, so it is refreshed periodically
+    @Scheduled(fixedDelayString = "${catalog.suggest.refresh-ms:3600000}")
+    public void refreshPopularity() {
+        if (built) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        List<ProductDTO> products = productRepository.findAllProductDTOs();
+        Map<Integer, Long> productSales = new HashMap<>();
+        orderItemsRepository.findSalesPerProduct()
+                .forEach(row -> productSales.put(row.getProductId(), row.getSold()));
+
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            productEntries.clear();
+            teamProducts.clear();
+            teamEntries.clear();
+            sales = productSales;
+            products.forEach(this::addProduct);
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (!built) {
+            synchronized (this) {
+                if (!built) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private void addProduct(ProductDTO product) {
+        if (product.getName() == null) {
+            return;
+        }
+        Entry entry = new Entry(product.getName(), "PRODUCT", product.getId(),
+                sales.getOrDefault(product.getId(), 0L), product.getTeam());
+        productEntries.put(product.getId(), entry);
+        insert(entry);
+
+        if (product.getTeam() != null) {
+            teamProducts.computeIfAbsent(product.getTeam(), team -> new HashSet<>()).add(product.getId());
+            refreshTeam(product.getTeam());
+        }
+    }
+
+    private void removeProduct(Integer productId) {
+        Entry entry = productEntries.remove(productId);
+        if (entry == null) {
+            return;
+        }
+        remove(entry);
+
+        if (entry.team() != null) {
+            Set<Integer> members = teamProducts.get(entry.team());
+            members.remove(productId);
+            if (members.isEmpty()) {
+                teamProducts.remove(entry.team());
+            }
+            refreshTeam(entry.team());
+        }
+    }
+
+    // A team is as popular as all of its products together
+    private void refreshTeam(String team) {
+        Entry previous = teamEntries.remove(team);
+        if (previous != null) {
+            remove(previous);
+        }
+        Set<Integer> members = teamProducts.get(team);
+        if (members != null) {
+            long popularity = members.stream().mapToLong(id -> sales.getOrDefault(id, 0L)).sum();
+            Entry entry = new Entry(team, "TEAM", null, popularity, team);
+            teamEntries.put(team, entry);
+            insert(entry);
+        }
+    }
+
+    private void insert(Entry entry) {
+        for (String key : keys(entry.text())) {
+            List<Node> path = path(key, true);
+            Node last = path.getLast();
+            if (last.terminals == null) {
+                last.terminals = new ArrayList<>(1);
+            }
+            last.terminals.add(entry);
+            recomputeTop(path);
+        }
+    }
+
+    private void remove(Entry entry) {
+        for (String key : keys(entry.text())) {
+            List<Node> path = path(key, false);
+            if (path.size() != key.length() + 1) {
+                continue;
+            }
+            Node last = path.getLast();
+            if (last.terminals != null) {
+                last.terminals.remove(entry);
+                if (last.terminals.isEmpty()) {
+                    last.terminals = null;
+                }
+            }
+            // Drop nodes that no longer lead anywhere
+            for (int depth = key.length(); depth > 0; depth--) {
+                Node node = path.get(depth);
+                if (node.terminals != null || node.keys.length > 0) {
+                    break;
+                }
+                path.get(depth - 1).removeChild(key.charAt(depth - 1));
+                path.removeLast();
+            }
+            recomputeTop(path);
+        }
+    }
+
+    private List<Node> path(String key, boolean create) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = create ? node.childOrCreate(key.charAt(i)) : node.child(key.charAt(i));
+            if (node == null) {
+                break;
+            }
+            path.add(node);
+        }
+        return path;
+    }
+
+    // Bottom-up: a node's best entries are the best of its own terminals and its children's best entries
+    private void recomputeTop(List<Node> path) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node node = path.get(depth);
+            Set<Entry> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (node.terminals != null) {
+                candidates.addAll(node.terminals);
+            }
+            for (Node child : node.children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            node.top = candidates.stream()
+                    .sorted(BY_POPULARITY)
+                    .limit(MAX_SUGGESTIONS)
+                    .toArray(Entry[]::new);
+        }
+    }
+
+    private static List<String> keys(String text) {
+        List<String> tokens = ProductSearchIndex.tokenize(text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < tokens.size() && i < MAX_WORD_STARTS; i++) {
+            keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+        return keys;
+    }
+
+    // Children are kept in parallel sorted arrays instead of a map per node to keep the trie small
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final Entry[] NO_ENTRIES = new Entry[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private List<Entry> terminals;
+        private Entry[] top = NO_ENTRIES;
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            Node node = new Node();
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = node;
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+
+        private void removeChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+
+    private record Entry(String text, String type, Integer productId, long popularity, String team) {
+        // Identity semantics: two products may share a name but are separate suggestions
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    public record Suggestion(
+            String text,
+            String type,
+            Integer productId
+    ) {
+    }
+}
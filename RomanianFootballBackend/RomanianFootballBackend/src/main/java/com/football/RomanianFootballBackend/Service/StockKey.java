@@ -0,0 +1,13 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+
+import java.util.Comparator;
+
+// One sellable unit of stock: a product in a given size
+public record StockKey(Integer productId, ProductInventory.Size size) {
+
+    // Every checkout takes inventory rows in this order, so two checkouts can never wait on each other in a cycle
+    public static final Comparator<StockKey> LOCK_ORDER = Comparator.comparing(StockKey::productId)
+            .thenComparing(StockKey::size);
+}
@@ -0,0 +1,103 @@
+package com.football.RomanianFootballBackend.Service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Available quantity of one SKU split across cells, so concurrent reservations usually land on different cache
+// lines instead of all queueing on one counter (or one row lock)
+final class StripedStock {
+
+    // Cells sit a cache line (16 ints) apart
+    private static final int SPACING = 16;
+
+    private final int stripes;
+    private final AtomicIntegerArray cells;
+
+    // Reservations that have seen the counter open and not finished yet; close() waits them out
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean closed;
+
+    StripedStock(int quantity, int stripes) {
+        this.stripes = stripes;
+        this.cells = new AtomicIntegerArray(stripes * SPACING);
+        spread(quantity);
+    }
+
+    // False once closed; callers then fall back to the table
+    boolean enter() {
+        inFlight.incrementAndGet();
+        if (closed) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    void close() {
+        closed = true;
+        while (inFlight.get() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    void reopen() {
+        closed = false;
+    }
+
+    // Tries the caller's home cell first, then the others; only when no single cell can cover the request
+    // are the cells pooled under the monitor
+    boolean tryTake(int quantity) {
+        int home = home();
+        for (int i = 0; i < stripes; i++) {
+            int index = ((home + i) % stripes) * SPACING;
+            int current;
+            while ((current = cells.get(index)) >= quantity) {
+                if (cells.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+        return pooledTake(quantity);
+    }
+
+    // Synchronized with pooledTake so a pooled count never misses stock being put back
+    synchronized void add(int quantity) {
+        cells.addAndGet(home() * SPACING, quantity);
+    }
+
+    int available() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * SPACING);
+        }
+        return total;
+    }
+
+    int stripes() {
+        return stripes;
+    }
+
+    private synchronized boolean pooledTake(int quantity) {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.getAndSet(i * SPACING, 0);
+        }
+        boolean taken = total >= quantity;
+        spread(taken ? total - quantity : total);
+        return taken;
+    }
+
+    private void spread(int total) {
+        for (int i = 0; i < stripes; i++) {
+            cells.addAndGet(i * SPACING, total / stripes + (i < total % stripes ? 1 : 0));
+        }
+    }
+
+    private int home() {
+        return (int) (Thread.currentThread().threadId() % stripes);
+    }
+}
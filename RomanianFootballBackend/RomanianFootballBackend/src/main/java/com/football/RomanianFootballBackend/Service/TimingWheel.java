@@ -0,0 +1,111 @@
+package com.football.RomanianFootballBackend.Service;
+
+import java.util.Arrays;
+
+// Hierarchical timing wheel: four levels of 64 slots, level n covering 64^n ticks per slot. Scheduling and
+// advancing one tick are O(1); an entry is moved down a level at most three times before it expires, so the
+// cost of a tick does not depend on how many entries are waiting. Not thread-safe.
+final class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    // Deadlines further out wait in the last level and are placed again when it comes round
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final Slot[][] levels = new Slot[LEVELS][SLOTS];
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long currentTick) {
+        this.currentTick = currentTick;
+        for (Slot[] level : levels) {
+            Arrays.setAll(level, i -> new Slot());
+        }
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // A deadline that has already passed expires on the next tick
+    void schedule(long id, long deadlineTick) {
+        place(id, Math.max(deadlineTick, currentTick + 1));
+        size++;
+    }
+
+    // Moves to the given tick and returns the ids whose deadline was reached on the way, in deadline order
+    long[] advanceTo(long tick) {
+        Slot expired = new Slot();
+        while (currentTick < tick) {
+            currentTick++;
+            for (int level = 1; level < LEVELS; level++) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                cascade(levels[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)]);
+            }
+            Slot due = levels[0][(int) (currentTick & SLOT_MASK)];
+            for (int i = 0; i < due.size; i++) {
+                expired.add(due.ids[i], due.deadlines[i]);
+            }
+            due.clear();
+        }
+        size -= expired.size;
+        return Arrays.copyOf(expired.ids, expired.size);
+    }
+
+    // The slot's entries are due within the level below now
+    private void cascade(Slot slot) {
+        long[] ids = Arrays.copyOf(slot.ids, slot.size);
+        long[] deadlines = Arrays.copyOf(slot.deadlines, slot.size);
+        slot.clear();
+        for (int i = 0; i < ids.length; i++) {
+            place(ids[i], deadlines[i]);
+        }
+    }
+
+    // deadlineTick is never before currentTick; when it equals it, the entry lands in the slot about to be drained
+    private void place(long id, long deadlineTick) {
+        long delta = deadlineTick - currentTick;
+        long slotTick = delta < SPAN ? deadlineTick : currentTick + SPAN - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && Math.min(delta, SPAN - 1) >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        levels[level][(int) ((slotTick >>> (SLOT_BITS * level)) & SLOT_MASK)].add(id, deadlineTick);
+    }
+
+    private static final class Slot {
+        private static final int INITIAL_CAPACITY = 4;
+        // Above this, a drained slot gives its arrays back
+        private static final int RETAINED_CAPACITY = 1024;
+
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private long[] deadlines = new long[INITIAL_CAPACITY];
+        private int size;
+
+        private void add(long id, long deadlineTick) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                deadlines = Arrays.copyOf(deadlines, size * 2);
+            }
+            ids[size] = id;
+            deadlines[size] = deadlineTick;
+            size++;
+        }
+
+        private void clear() {
+            size = 0;
+            if (ids.length > RETAINED_CAPACITY) {
+                ids = new long[INITIAL_CAPACITY];
+                deadlines = new long[INITIAL_CAPACITY];
+            }
+        }
+    }
+}
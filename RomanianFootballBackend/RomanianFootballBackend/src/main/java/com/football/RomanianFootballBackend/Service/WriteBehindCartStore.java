@@ -0,0 +1,587 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.AddToCartDTO;
+import com.football.RomanianFootballBackend.DTO.CartBatchDTO;
+import com.football.RomanianFootballBackend.DTO.CartItemDTO;
+import com.football.RomanianFootballBackend.DTO.ProductDTO;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Keeps the carts people are working on in memory, by cart and by user, so adding, changing and removing lines
+// writes nothing. Changed carts are written out every flush-ms, up to FLUSH_BATCH carts per transaction; a cart
+// is written out at once when it is detached (checkout) or when it is spilled as the least recently used of more
+// than max-carts. Lines not written yet have negative ids, and a line is found by either of its ids.
+// Carts kept here do not hold stock, so cart.hold cannot be turned on with this store, and a hold left from the
+// database store is given back when its cart is loaded.
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "memory")
+public class WriteBehindCartStore implements CartStore {
+
+    static final int FLUSH_BATCH = 100;
+    // Flushes in a row a cart may fail before it is let go unwritten, to be loaded again from the table
+    static final int MAX_WRITE_FAILURES = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+    private static final String INSERT_LINE =
+            "INSERT INTO cart_items (cart_id, product_id, size, player, number, quantity, price) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_LINE = "UPDATE cart_items SET quantity = ?, price = ? WHERE id = ?";
+    private static final String DELETE_LINE = "DELETE FROM cart_items WHERE id = ?";
+    private static final String SET_TOTAL = "UPDATE cart SET total_price = ?, last_activity = ? WHERE id = ?";
+
+    @Autowired
+    private CartItemsService cartItemsService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartHoldService cartHoldService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cart.store.max-carts:10000}")
+    private int maxCarts;
+
+    @Value("${cart.hold.enabled:false}")
+    private boolean holdsEnabled;
+
+    // Access-ordered, so iteration starts at the least recently used cart. Guarded by this, like cartIdsByUser.
+    private final LinkedHashMap<Integer, LiveCart> carts = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, Integer> cartIdsByUser = new HashMap<>();
+
+    // Carts with changes not written yet
+    private final Set<LiveCart> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger lastTemporaryId = new AtomicInteger();
+
+    // Lines changed here would leave their holds covering the wrong quantity, or nothing at all
+    @PostConstruct
+    void checkHoldsAreOff() {
+        if (holdsEnabled) {
+            throw new IllegalStateException("cart.hold.enabled=true needs cart.store=database");
+        }
+    }
+
+    @Override
+    public CartItemDTO add(AddToCartDTO addToCartDTO) {
+        CartBatchDTO.CartOperationDTO operation = new CartBatchDTO.CartOperationDTO();
+        operation.setType(CartBatchDTO.CartOperationDTO.Type.ADD);
+        operation.setProductId(addToCartDTO.getProductId());
+        operation.setSize(addToCartDTO.getSize());
+        operation.setPlayer(addToCartDTO.getPlayer());
+        operation.setNumber(addToCartDTO.getNumber());
+        operation.setQuantity(addToCartDTO.getQuantity());
+        return withCart(addToCartDTO.getCartId(), cart -> toDTO(change(cart, List.of(operation))));
+    }
+
+    @Override
+    public CartService.CartContents apply(Integer cartId, List<CartBatchDTO.CartOperationDTO> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("No operations");
+        }
+        if (operations.size() > CartService.MAX_BATCH_OPERATIONS) {
+            throw new IllegalArgumentException("At most " + CartService.MAX_BATCH_OPERATIONS + " operations per batch");
+        }
+        return withCart(cartId, cart -> {
+            change(cart, operations);
+            return new CartService.CartContents(cart.id, total(cart),
+                    cart.lines.stream().map(WriteBehindCartStore::toDTO).toList());
+        });
+    }
+
+    // A cart that is not live is read from the tables rather than loaded
+    @Override
+    public List<CartItemDTO> getItemsByUserId(Integer userId) {
+        LiveCart cart = liveCartOfUser(userId);
+        if (cart != null) {
+            cart.lock.lock();
+            try {
+                if (!cart.detached) {
+                    return cart.lines.stream().map(WriteBehindCartStore::toDTO).toList();
+                }
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+        return cartItemsService.getCartItemsByUserId(userId);
+    }
+
+    // A failed write leaves the cart live, and is the caller's error: checkout must not go on without its lines
+    @Override
+    public void detach(Integer cartId) {
+        LiveCart cart;
+        synchronized (this) {
+            cart = carts.get(cartId);
+        }
+        if (cart != null) {
+            drop(cart);
+        }
+    }
+
+    @Override
+    public void detachByUserId(Integer userId) {
+        LiveCart cart = liveCartOfUser(userId);
+        if (cart != null) {
+            drop(cart);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.flush-ms:5000}")
+    public void flush() {
+        // In id order, so two writers always lock carts in the same order
+        List<LiveCart> pending = dirty.stream().sorted(Comparator.comparing(cart -> cart.id)).toList();
+        for (int from = 0; from < pending.size(); from += FLUSH_BATCH) {
+            List<LiveCart> chunk = pending.subList(from, Math.min(from + FLUSH_BATCH, pending.size()));
+            try {
+                writeLocked(chunk);
+            } catch (RuntimeException e) {
+                // One bad cart (deleted meanwhile, say) must not hold the others back
+                chunk.forEach(this::writeOrGiveUp);
+            }
+        }
+    }
+
+    // Live lines of the product take the new price as the rows do, so writing them out cannot put the old one back
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceChanged(ProductPriceChangedEvent event) {
+        List<LiveCart> live;
+        synchronized (this) {
+            live = new ArrayList<>(carts.values());
+        }
+        for (LiveCart cart : live) {
+            cart.lock.lock();
+            try {
+                if (cart.detached) {
+                    continue;
+                }
+                for (Line line : cart.lines) {
+                    if (!line.product.getId().equals(event.productId())) {
+                        continue;
+                    }
+                    ProductDTO product = line.product;
+                    line.product = new ProductDTO(product.getId(), product.getName(), product.getDescription(),
+                            event.price(), product.getTeam(), product.getLicenced(), product.getPhotoUrl());
+                    BigDecimal price = event.price().multiply(BigDecimal.valueOf(line.quantity));
+                    if (price.compareTo(line.price) != 0) {
+                        line.price = price;
+                        line.written = false;
+                        dirty.add(cart);
+                    }
+                }
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+    }
+
+    int liveCarts() {
+        synchronized (this) {
+            return carts.size();
+        }
+    }
+
+    int dirtyCarts() {
+        return dirty.size();
+    }
+
+    private <T> T withCart(Integer cartId, Function<LiveCart, T> action) {
+        while (true) {
+            LiveCart cart = live(cartId);
+            T result;
+            cart.lock.lock();
+            try {
+                if (cart.detached) {
+                    // Written out and let go meanwhile; load it again
+                    continue;
+                }
+                result = action.apply(cart);
+            } finally {
+                cart.lock.unlock();
+            }
+            spillOverflow();
+            return result;
+        }
+    }
+
+    private LiveCart live(Integer cartId) {
+        synchronized (this) {
+            LiveCart cart = carts.get(cartId);
+            if (cart != null) {
+                return cart;
+            }
+        }
+        // Loaded outside the monitor; a cart is only let go once it is written, so this reads its latest state
+        LiveCart loaded = load(cartId);
+        synchronized (this) {
+            LiveCart cart = carts.putIfAbsent(cartId, loaded);
+            if (cart != null) {
+                return cart;
+            }
+            cartIdsByUser.put(loaded.userId, cartId);
+            return loaded;
+        }
+    }
+
+    private LiveCart liveCartOfUser(Integer userId) {
+        synchronized (this) {
+            Integer cartId = cartIdsByUser.get(userId);
+            return cartId == null ? null : carts.get(cartId);
+        }
+    }
+
+    private LiveCart load(Integer cartId) {
+        // Marked active before its lines are read, so the purge cannot take them from under the live copy
+        jdbcTemplate.update("UPDATE cart SET last_activity = ? WHERE id = ?", Timestamp.from(Instant.now()), cartId);
+        Integer userId = jdbcTemplate.query("SELECT user_id FROM cart WHERE id = ?",
+                result -> result.next() ? result.getInt(1) : null, cartId);
+        if (userId == null) {
+            throw new EntityNotFoundException("Cart not found");
+        }
+        // Changes made here never touch held_until, so the units go back now rather than being lost to a later
+        // update or delete of the row
+        cartHoldService.releaseCart(cartId);
+        LiveCart cart = new LiveCart(cartId, userId);
+        for (CartItemDTO item : cartItemsService.getCartItemsByCartId(cartId)) {
+            Line line = new Line(item.getId(), item.getProduct(), ProductInventory.Size.valueOf(item.getSize()),
+                    item.getPlayer(), item.getNumber());
+            line.rowId = item.getId();
+            line.quantity = item.getQuantity();
+            line.price = item.getPrice();
+            line.written = true;
+            cart.lines.add(line);
+        }
+        return cart;
+    }
+
+    // Same rules as CartService.applyBatch, worked on copies so an invalid operation leaves the cart as it was.
+    // Returns the line the last operation left behind (null after a removal).
+    private Line change(LiveCart cart, List<CartBatchDTO.CartOperationDTO> operations) {
+        List<Line> lines = new ArrayList<>();
+        cart.lines.forEach(line -> lines.add(line.copy()));
+        List<Integer> deletedRows = new ArrayList<>(cart.deletedRows);
+        Line last = null;
+        for (CartBatchDTO.CartOperationDTO operation : operations) {
+            if (operation.getType() == null) {
+                throw new IllegalArgumentException("Operation type is required");
+            }
+            switch (operation.getType()) {
+                case ADD -> {
+                    ProductDTO product = operation.getProductId() == null ? null
+                            : productService.getProductDTOById(operation.getProductId());
+                    if (product == null) {
+                        throw new EntityNotFoundException("Product not found: " + operation.getProductId());
+                    }
+                    ProductInventory.Size size = ProductInventory.Size.valueOf(operation.getSize());
+                    String player = operation.getPlayer() == null ? "" : operation.getPlayer();
+                    String number = operation.getNumber() == null ? "" : operation.getNumber();
+                    last = lines.stream()
+                            .filter(line -> line.product.getId().equals(product.getId()) && line.size == size
+                                    && line.player.equals(player) && line.number.equals(number))
+                            .findFirst()
+                            .orElse(null);
+                    if (last == null) {
+                        last = new Line(-lastTemporaryId.incrementAndGet(), product, size, player, number);
+                        lines.add(last);
+                    }
+                    last.product = product;
+                    last.quantity += CartService.positive(operation.getQuantity());
+                }
+                case UPDATE -> {
+                    last = find(lines, cart.id, operation.getItemId());
+                    last.quantity = CartService.positive(operation.getQuantity());
+                }
+                case REMOVE -> {
+                    Line removed = find(lines, cart.id, operation.getItemId());
+                    lines.remove(removed);
+                    if (removed.rowId != null) {
+                        deletedRows.add(removed.rowId);
+                    }
+                    last = null;
+                    continue;
+                }
+            }
+            last.price = last.product.getPrice().multiply(BigDecimal.valueOf(last.quantity));
+            last.written = false;
+        }
+        cart.lines = lines;
+        cart.deletedRows = deletedRows;
+        cart.lastActivity = Instant.now();
+        dirty.add(cart);
+        return last;
+    }
+
+    private static Line find(List<Line> lines, Integer cartId, Integer itemId) {
+        return lines.stream()
+                .filter(line -> line.id.equals(itemId) || Objects.equals(line.rowId, itemId))
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Cart item " + itemId + " is not in cart " + cartId));
+    }
+
+    private void spillOverflow() {
+        while (true) {
+            LiveCart eldest;
+            synchronized (this) {
+                if (carts.size() <= maxCarts) {
+                    return;
+                }
+                eldest = carts.values().iterator().next();
+            }
+            try {
+                drop(eldest);
+            } catch (RuntimeException e) {
+                // Stays live and dirty; the next flush tries again, and gives up on it if it keeps failing
+                log.warn("Could not write out cart {} to spill it", eldest.id, e);
+                return;
+            }
+        }
+    }
+
+    // Writes the cart out and forgets it
+    private void drop(LiveCart cart) {
+        cart.lock.lock();
+        try {
+            if (cart.detached) {
+                return;
+            }
+            if (dirty.contains(cart)) {
+                write(List.of(cart));
+            }
+            cart.detached = true;
+            synchronized (this) {
+                carts.remove(cart.id, cart);
+                cartIdsByUser.remove(cart.userId, cart.id);
+            }
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    // A cart that failed MAX_WRITE_FAILURES flushes in a row is let go with its changes, which are logged; the
+    // next request for it loads what the table has
+    private void writeOrGiveUp(LiveCart cart) {
+        cart.lock.lock();
+        try {
+            if (cart.detached || !dirty.contains(cart)) {
+                return;
+            }
+            try {
+                write(List.of(cart));
+            } catch (RuntimeException e) {
+                cart.failedWrites++;
+                if (cart.failedWrites < MAX_WRITE_FAILURES) {
+                    log.warn("Could not write cart {} (attempt {} of {})", cart.id, cart.failedWrites, MAX_WRITE_FAILURES, e);
+                    return;
+                }
+                log.error("Giving up on cart {} after {} failed writes, its unwritten changes are lost: {} lines, {} rows to delete",
+                        cart.id, cart.failedWrites, cart.lines.stream().filter(line -> !line.written).count(),
+                        cart.deletedRows.size(), e);
+                cart.detached = true;
+                dirty.remove(cart);
+                synchronized (this) {
+                    carts.remove(cart.id, cart);
+                    cartIdsByUser.remove(cart.userId, cart.id);
+                }
+            }
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    // carts must be in id order
+    private void writeLocked(List<LiveCart> carts) {
+        carts.forEach(cart -> cart.lock.lock());
+        try {
+            write(carts.stream().filter(cart -> !cart.detached && dirty.contains(cart)).toList());
+        } finally {
+            carts.forEach(cart -> cart.lock.unlock());
+        }
+    }
+
+    // One transaction for all the carts: batched deletes, updates and inserts of the lines, then each cart's total.
+    // A line whose row is gone (purged while the cart sat here, say) is inserted again; a cart whose row is gone
+    // fails the write. A delete that finds no row already has what it wanted. The carts only take on the new row
+    // ids once it has committed. The caller holds the carts' locks.
+    private void write(List<LiveCart> carts) {
+        if (carts.isEmpty()) {
+            return;
+        }
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Line> updated = new ArrayList<>();
+        List<Integer> updatedCartIds = new ArrayList<>();
+        List<Line> inserts = new ArrayList<>();
+        List<Integer> insertCartIds = new ArrayList<>();
+        List<Object[]> totals = new ArrayList<>();
+        for (LiveCart cart : carts) {
+            cart.deletedRows.forEach(rowId -> deletes.add(new Object[]{rowId}));
+            for (Line line : cart.lines) {
+                if (line.rowId == null) {
+                    inserts.add(line);
+                    insertCartIds.add(cart.id);
+                } else if (!line.written) {
+                    updates.add(new Object[]{line.quantity, line.price, line.rowId});
+                    updated.add(line);
+                    updatedCartIds.add(cart.id);
+                }
+            }
+            totals.add(new Object[]{total(cart), Timestamp.from(cart.lastActivity), cart.id});
+        }
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_LINE, deletes);
+            int[] updateCounts = jdbcTemplate.batchUpdate(UPDATE_LINE, updates);
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] == 0) {
+                    inserts.add(updated.get(i));
+                    insertCartIds.add(updatedCartIds.get(i));
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_LINE, new String[]{"id"}),
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                                Line line = inserts.get(i);
+                                statement.setInt(1, insertCartIds.get(i));
+                                statement.setInt(2, line.product.getId());
+                                statement.setString(3, line.size.name());
+                                statement.setString(4, line.player);
+                                statement.setString(5, line.number);
+                                statement.setInt(6, line.quantity);
+                                statement.setBigDecimal(7, line.price);
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return inserts.size();
+                            }
+                        }, keys);
+            }
+            int[] totalCounts = jdbcTemplate.batchUpdate(SET_TOTAL, totals);
+            for (int i = 0; i < totalCounts.length; i++) {
+                if (totalCounts[i] == 0) {
+                    throw new EntityNotFoundException("Cart " + carts.get(i).id + " is gone");
+                }
+            }
+        });
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < inserts.size(); i++) {
+            inserts.get(i).rowId = ((Number) generated.get(i).values().iterator().next()).intValue();
+        }
+        for (LiveCart cart : carts) {
+            cart.deletedRows = new ArrayList<>();
+            cart.lines.forEach(line -> line.written = true);
+            cart.failedWrites = 0;
+            dirty.remove(cart);
+        }
+    }
+
+    private static BigDecimal total(LiveCart cart) {
+        return cart.lines.stream().map(line -> line.price).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static CartItemDTO toDTO(Line line) {
+        if (line == null) {
+            return null;
+        }
+        CartItemDTO dto = new CartItemDTO();
+        dto.setId(line.id);
+        dto.setProduct(line.product);
+        dto.setSize(line.size.name());
+        dto.setQuantity(line.quantity);
+        dto.setPlayer(line.player);
+        dto.setNumber(line.number);
+        dto.setPrice(line.price);
+        return dto;
+    }
+
+    private static final class LiveCart {
+        private final Integer id;
+        private final Integer userId;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // The rest is guarded by lock
+        private List<Line> lines = new ArrayList<>();
+        // Rows of removed lines, still to be deleted
+        private List<Integer> deletedRows = new ArrayList<>();
+        // Set once the cart is written out and forgotten; whoever still holds it has to look it up again
+        private boolean detached;
+        private Instant lastActivity = Instant.now();
+        // Flushes in a row that could not write the cart
+        private int failedWrites;
+
+        private LiveCart(Integer id, Integer userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+    }
+
+    private static final class Line {
+        // The id the shopper sees: the row id for lines loaded from the table, a negative one for lines added here
+        private final Integer id;
+        private final ProductInventory.Size size;
+        private final String player;
+        private final String number;
+        private ProductDTO product;
+        private Integer rowId;
+        private int quantity;
+        private BigDecimal price = BigDecimal.ZERO;
+        // The row matches the line
+        private boolean written;
+
+        private Line(Integer id, ProductDTO product, ProductInventory.Size size, String player, String number) {
+            this.id = id;
+            this.product = product;
+            this.size = size;
+            this.player = player == null ? "" : player;
+            this.number = number == null ? "" : number;
+        }
+
+        private Line copy() {
+            Line copy = new Line(id, product, size, player, number);
+            copy.rowId = rowId;
+            copy.quantity = quantity;
+            copy.price = price;
+            copy.written = written;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.football.RomanianFootballBackend.Controller;
+
+import com.football.RomanianFootballBackend.Entity.Orders;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.Service.CatalogChangedEvent;
+import com.football.RomanianFootballBackend.Service.OrdersService;
+import com.football.RomanianFootballBackend.Service.ProductInventoryService;
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdminEventsControllerTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)\\nevent:inventory\\ndata:\\{\"productId\":1,\"rows\":\\[\\{\"id\":1,\"size\":\"M\",\"quantity\":1}");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductInventoryService productInventoryService;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    private MockHttpSession admin;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (1, 'Home Jersey', 200, 'Dinamo', TRUE)");
+        jdbcTemplate.update("INSERT INTO product_inventory (id, product_id, size, quantity) VALUES (1, 1, 'M', 10)");
+        jdbcTemplate.update("INSERT INTO user (id, email, password, role) VALUES (1, 'fan@example.com', 'x', 'USER')");
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, total_price, status, city) VALUES (1, 1, 200, 'PENDING', 'Iasi')");
+        admin = new MockHttpSession();
+        admin.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken("admin@example.com", null,
+                        List.of(new SimpleGrantedAuthority("ROLE_ADMIN")))));
+    }
+
+    @Test
+    void subscribersReceiveInventoryAndOrderChangesAsTheyCommit() throws Exception {
+        mockMvc.perform(get("/api/admin/events")).andExpect(status().isUnauthorized());
+        MockHttpServletResponse stream = subscribe(null);
+
+        productInventoryService.updateProductInventory(1, quantity(9));
+        Orders completed = new Orders();
+        completed.setStatus(Orders.OrderStatus.COMPLETED);
+        ordersService.updateOrder(1, completed);
+
+        awaitContent(stream, "\"status\":\"COMPLETED\"");
+        String events = stream.getContentAsString();
+        assertTrue(events.contains("event:inventory\ndata:{\"productId\":1,\"rows\":[{\"id\":1,\"size\":\"M\",\"quantity\":9}]}"), events);
+        assertTrue(events.contains("event:order\ndata:{\"orderId\":1,\"order\":{\"id\":1,"), events);
+    }
+
+    @Test
+    void reconnectingSubscriberIsReplayedWhatItMissed() throws Exception {
+        MockHttpServletResponse first = subscribe(null);
+        // Payloads are read when the event is published, so each change is let through before the next
+        for (int quantity = 1; quantity <= 3; quantity++) {
+            productInventoryService.updateProductInventory(1, quantity(quantity));
+            awaitContent(first, "\"quantity\":" + quantity + "}");
+        }
+        Matcher firstEvent = EVENT_ID.matcher(first.getContentAsString());
+        assertTrue(firstEvent.find(), first.getContentAsString());
+
+        MockHttpServletResponse resumed = subscribe(firstEvent.group(1));
+        awaitContent(resumed, "\"quantity\":3}");
+        assertTrue(resumed.getContentAsString().contains("\"quantity\":2}"));
+        assertFalse(resumed.getContentAsString().contains("\"quantity\":1}"));
+
+        MockHttpServletResponse stale = subscribe("from-another-run-42");
+        awaitContent(stale, "event:reset");
+    }
+
+    private MockHttpServletResponse subscribe(String lastEventId) throws Exception {
+        var subscription = get("/api/admin/events").session(admin);
+        if (lastEventId != null) {
+            subscription.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(subscription)
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static void awaitContent(MockHttpServletResponse stream, String expected) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (stream.getContentAsString().contains(expected)) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("Stream never contained " + expected + ": " + stream.getContentAsString());
+    }
+
+    private static ProductInventory quantity(int quantity) {
+        ProductInventory update = new ProductInventory();
+        update.setQuantity(quantity);
+        return update;
+    }
+}
@@ -0,0 +1,179 @@
+package com.football.RomanianFootballBackend.Controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.football.RomanianFootballBackend.Entity.OrderItems;
+import com.football.RomanianFootballBackend.Entity.Orders;
+import com.football.RomanianFootballBackend.Entity.Product;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.Entity.User;
+import com.football.RomanianFootballBackend.Repository.OrderItemsRepository;
+import com.football.RomanianFootballBackend.Repository.OrdersRepository;
+import com.football.RomanianFootballBackend.Repository.ProductRepository;
+import com.football.RomanianFootballBackend.Repository.UserRepository;
+import com.football.RomanianFootballBackend.Service.CatalogChangedEvent;
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogAdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrdersRepository ordersRepository;
+
+    @Autowired
+    private OrderItemsRepository orderItemsRepository;
+
+    private MockHttpSession admin;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        admin = new MockHttpSession();
+        admin.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken("admin@example.com", null,
+                        List.of(new SimpleGrantedAuthority("ROLE_ADMIN")))));
+    }
+
+    @Test
+    void importedCsvComesBackOutOfTheExport() throws Exception {
+        String feed = "name,team,description,price,licenced,M,photos\n"
+                + "Rapid Home,Rapid București,\"Grena, \"\"giulesti\"\" edition\",179.90,true,4,/images/rapid_1.jpg\n"
+                + "Nameless,Rapid București,,10,true,1,\n";
+
+        mockMvc.perform(post("/api/admin/catalog/import").contentType("text/csv").content(feed))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/admin/catalog/import").session(admin).contentType("text/csv").content(feed))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(0));
+
+        String csv = export("/api/admin/export/products?format=csv", "products.csv");
+        Integer id = productRepository.findByNameContaining("Rapid").getFirst().getId();
+        assertEquals("id,name,description,price,team,licenced\r\n"
+                + id + ",Rapid Home,\"Grena, \"\"giulesti\"\" edition\",179.90,Rapid București,true\r\n"
+                + (id + 1) + ",Nameless,,10.00,Rapid București,true\r\n", csv);
+
+        String inventory = export("/api/admin/export/inventory?format=ndjson", "inventory.ndjson");
+        JsonNode first = objectMapper.readTree(inventory.lines().findFirst().orElseThrow());
+        assertEquals("M", first.get("size").asText());
+        assertEquals(4, first.get("quantity").asInt());
+        assertEquals(2, inventory.lines().count());
+    }
+
+    @Test
+    void ordersAreExportedOneLinePerOrderItem() throws Exception {
+        Product product = new Product();
+        product.setName("Dinamo Home");
+        product.setPrice(new BigDecimal("150.00"));
+        productRepository.save(product);
+        User user = new User();
+        user.setEmail("fan@example.com");
+        user.setRole(User.Role.USER);
+        userRepository.save(user);
+
+        Orders withLines = order(user, "300.00");
+        line(withLines, product, ProductInventory.Size.M, "Hagi");
+        line(withLines, product, ProductInventory.Size.L, null);
+        Orders empty = order(user, "0.00");
+
+        List<JsonNode> rows = export("/api/admin/export/orders?format=ndjson", "orders.ndjson").lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+
+        assertEquals(3, rows.size());
+        assertEquals(withLines.getId().intValue(), rows.get(0).get("orderId").asInt());
+        assertEquals("Hagi", rows.get(0).get("player").asText());
+        assertEquals("fan@example.com", rows.get(1).get("userEmail").asText());
+        assertEquals("L", rows.get(1).get("size").asText());
+        assertEquals(empty.getId().intValue(), rows.get(2).get("orderId").asInt());
+        assertEquals(true, rows.get(2).get("productId").isNull());
+
+        mockMvc.perform(get("/api/admin/export/orders?format=xml").session(admin))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String export(String url, String filename) throws Exception {
+        MvcResult started = mockMvc.perform(get(url).session(admin))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\""))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private Orders order(User user, String total) {
+        Orders order = new Orders();
+        order.setUser(user);
+        order.setStatus(Orders.OrderStatus.PENDING);
+        order.setTotalPrice(new BigDecimal(total));
+        order.setCity("Bucuresti");
+        return ordersRepository.save(order);
+    }
+
+    private void line(Orders order, Product product, ProductInventory.Size size, String player) {
+        OrderItems item = new OrderItems();
+        item.setOrders(order);
+        item.setProduct(product);
+        item.setSize(size);
+        item.setPlayer(player);
+        item.setQuantity(1);
+        item.setPrice(new BigDecimal("150.00"));
+        orderItemsRepository.save(item);
+    }
+}
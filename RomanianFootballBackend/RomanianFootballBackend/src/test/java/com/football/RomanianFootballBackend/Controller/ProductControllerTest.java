@@ -0,0 +1,285 @@
+package com.football.RomanianFootballBackend.Controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.football.RomanianFootballBackend.Entity.Product;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.Entity.ProductPhotos;
+import com.football.RomanianFootballBackend.Entity.User;
+import com.football.RomanianFootballBackend.Entity.Wishlist;
+import com.football.RomanianFootballBackend.Entity.WishlistItems;
+import com.football.RomanianFootballBackend.Repository.ProductInventoryRepository;
+import com.football.RomanianFootballBackend.Repository.UserRepository;
+import com.football.RomanianFootballBackend.Repository.WishlistItemsRepository;
+import com.football.RomanianFootballBackend.Repository.WishlistRepository;
+import com.football.RomanianFootballBackend.Service.CatalogChangedEvent;
+import com.football.RomanianFootballBackend.Service.ProductInventoryService;
+import com.football.RomanianFootballBackend.Service.ProductPhotosService;
+import com.football.RomanianFootballBackend.Service.ProductService;
+import com.football.RomanianFootballBackend.TestDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductPhotosService productPhotosService;
+
+    @Autowired
+    private ProductInventoryService productInventoryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    @Autowired
+    private WishlistItemsRepository wishlistItemsRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TestDatabase.clear(jdbcTemplate);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+    }
+
+    @Test
+    void catalogListIsServedFromPreEncodedSnapshot() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            save("Kit " + i);
+        }
+
+        MvcResult plain = mockMvc.perform(get("/api/product"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(20))
+                .andReturn();
+        assertArrayEquals(objectMapper.writeValueAsBytes(productService.getAllProducts()),
+                plain.getResponse().getContentAsByteArray());
+
+        MvcResult gzipped = mockMvc.perform(get("/api/product").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        byte[] unzipped = new GZIPInputStream(
+                new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray())).readAllBytes();
+        assertArrayEquals(plain.getResponse().getContentAsByteArray(), unzipped);
+    }
+
+    @Test
+    void snapshotsAreRegeneratedAfterCatalogChanges() throws Exception {
+        Product product = save("Rapid Home");
+        mockMvc.perform(get("/api/product/" + product.getId()))
+                .andExpect(jsonPath("$.name").value("Rapid Home"));
+
+        Product update = new Product();
+        update.setName("Rapid Away");
+        productService.updateProduct(product.getId(), update);
+
+        mockMvc.perform(get("/api/product/" + product.getId()))
+                .andExpect(jsonPath("$.name").value("Rapid Away"));
+        mockMvc.perform(get("/api/product"))
+                .andExpect(jsonPath("$[0].name").value("Rapid Away"));
+
+        MvcResult missing = mockMvc.perform(get("/api/product/" + (product.getId() + 100)))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(0, missing.getResponse().getContentLength());
+        assertTrue(missing.getResponse().getContentAsString().isEmpty());
+    }
+
+    @Test
+    void repeatVisitsWithMatchingEtagGetNotModifiedWithoutQueries() throws Exception {
+        Product product = save("Dinamo Home");
+        String listTag = mockMvc.perform(get("/api/product"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String photosTag = mockMvc.perform(get("/api/productPhotos/" + product.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String inventoryTag = mockMvc.perform(get("/api/productInventory/product/" + product.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/product").header(HttpHeaders.IF_NONE_MATCH, listTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/productPhotos/" + product.getId()).header(HttpHeaders.IF_NONE_MATCH, photosTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/productInventory/product/" + product.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, inventoryTag))
+                .andExpect(status().isNotModified());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        ProductPhotos photo = new ProductPhotos();
+        photo.setProduct(product);
+        photo.setPhotoUrl("/images/dinamo_home_1.jpg");
+        photo.setIsPrimary(true);
+        productPhotosService.addPhoto(photo);
+
+        mockMvc.perform(get("/api/product").header(HttpHeaders.IF_NONE_MATCH, listTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].photoUrl").value("/images/dinamo_home_1.jpg"));
+        mockMvc.perform(get("/api/productPhotos/" + product.getId()).header(HttpHeaders.IF_NONE_MATCH, photosTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/productInventory/product/" + product.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, inventoryTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void detailAggregatesProductPhotosStockAndWishlist() throws Exception {
+        Product product = save("Rapid Home");
+        addPhoto(product, "/images/rapid_back.jpg", false, 2);
+        addPhoto(product, "/images/rapid_side.jpg", false, 1);
+        addPhoto(product, "C:\\shop\\images\\rapid_front.jpg", true, 3);
+        stock(product, ProductInventory.Size.XL, 2);
+        stock(product, ProductInventory.Size.S, 5);
+        stock(product, ProductInventory.Size.M, 0);
+
+        statistics.clear();
+        MvcResult anonymous = mockMvc.perform(get("/api/product/" + product.getId() + "/detail"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.product.name").value("Rapid Home"))
+                .andExpect(jsonPath("$.product.photoUrl").value("/images/rapid_front.jpg"))
+                .andExpect(jsonPath("$.photos[0].photoUrl").value("/images/rapid_front.jpg"))
+                .andExpect(jsonPath("$.photos[1].photoUrl").value("/images/rapid_side.jpg"))
+                .andExpect(jsonPath("$.photos[2].photoUrl").value("/images/rapid_back.jpg"))
+                .andExpect(jsonPath("$.sizes.length()").value(2))
+                .andExpect(jsonPath("$.sizes[0].size").value("S"))
+                .andExpect(jsonPath("$.sizes[1].size").value("XL"))
+                .andExpect(jsonPath("$.sizes[1].quantity").value(2))
+                .andExpect(jsonPath("$.inWishlist").doesNotExist())
+                .andReturn();
+        // Product, photos and stock; the four separate endpoints needed many more
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        String tag = anonymous.getResponse().getHeader(HttpHeaders.ETAG);
+        statistics.clear();
+        mockMvc.perform(get("/api/product/" + product.getId() + "/detail").header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/product/" + product.getId() + "/detail"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(anonymous.getResponse().getContentAsByteArray()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        ProductInventory restock = new ProductInventory();
+        restock.setProduct(product);
+        restock.setSize(ProductInventory.Size.L);
+        restock.setQuantity(4);
+        productInventoryService.addProductInventory(restock);
+        mockMvc.perform(get("/api/product/" + product.getId() + "/detail").header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sizes[1].size").value("L"))
+                .andExpect(jsonPath("$.sizes[1].quantity").value(4));
+
+        User user = new User();
+        user.setEmail("fan@example.com");
+        user.setPassword("secret");
+        user.setRole(User.Role.USER);
+        userRepository.save(user);
+        Wishlist wishlist = new Wishlist();
+        wishlist.setUser(user);
+        wishlistRepository.save(wishlist);
+        WishlistItems item = new WishlistItems();
+        item.setWishlist(wishlist);
+        item.setProduct(product);
+        wishlistItemsRepository.save(item);
+
+        SecurityContext context = new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken("fan@example.com", null, List.of()));
+        statistics.clear();
+        mockMvc.perform(get("/api/product/" + product.getId() + "/detail")
+                        .sessionAttr(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.inWishlist").value(true));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        mockMvc.perform(get("/api/product/" + (product.getId() + 100) + "/detail"))
+                .andExpect(status().isNotFound());
+    }
+
+    private void addPhoto(Product product, String url, boolean primary, int displayOrder) {
+        ProductPhotos photo = new ProductPhotos();
+        photo.setProduct(product);
+        photo.setPhotoUrl(url);
+        photo.setIsPrimary(primary);
+        photo.setDisplayOrder(displayOrder);
+        productPhotosService.addPhoto(photo);
+    }
+
+    private void stock(Product product, ProductInventory.Size size, int quantity) {
+        ProductInventory inventory = new ProductInventory();
+        inventory.setProduct(product);
+        inventory.setSize(size);
+        inventory.setQuantity(quantity);
+        productInventoryRepository.save(inventory);
+    }
+
+    private Product save(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setTeam("Rapid București");
+        product.setDescription("Tricou oficial pentru sezonul 2024/2025");
+        product.setPrice(new BigDecimal("179.99"));
+        product.setLicenced(true);
+        return productService.addProduct(product);
+    }
+}
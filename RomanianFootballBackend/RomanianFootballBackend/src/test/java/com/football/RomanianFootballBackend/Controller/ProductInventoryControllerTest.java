@@ -0,0 +1,79 @@
+package com.football.RomanianFootballBackend.Controller;
+
+import com.football.RomanianFootballBackend.TestDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductInventoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (1, 'Home Jersey', 200, 'Rapid', TRUE)");
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (2, 'Away Jersey', 200, 'Rapid', TRUE)");
+        jdbcTemplate.update("INSERT INTO product_inventory (product_id, size, quantity) VALUES " +
+                "(1, 'S', 3), (1, 'L', 0), (1, 'XXL', 7), (2, 'M', 1)");
+    }
+
+    @Test
+    void availabilityOfManyProductsComesFromOneQuery() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(post("/api/productInventory/availability")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[2, 1, 99, 1]"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("""
+                        [{"productId": 2, "inStock": 2, "quantities": [0, 1, 0, 0, 0]},
+                         {"productId": 1, "inStock": 17, "quantities": [3, 0, 0, 0, 7]},
+                         {"productId": 99, "inStock": 0, "quantities": [0, 0, 0, 0, 0]}]
+                        """, true));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void availabilityIsPublicButInventoryWritesStayAdminOnly() throws Exception {
+        String tooMany = IntStream.rangeClosed(1, 501).mapToObj(Integer::toString)
+                .collect(Collectors.joining(",", "[", "]"));
+
+        mockMvc.perform(post("/api/productInventory/availability")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(tooMany))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/productInventory")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 5}"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,137 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.AddToCartDTO;
+import com.football.RomanianFootballBackend.DTO.CreateOrderDTO;
+import com.football.RomanianFootballBackend.Entity.CartItems;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+        "cart.hold.enabled=true",
+        "cart.hold.ttl-seconds=900",
+        // Ticks are driven by the tests
+        "cart.hold.tick-ms=3600000"
+})
+@ActiveProfiles("test")
+class CartHoldServiceTest {
+
+    @Autowired
+    private CartHoldService cartHoldService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartItemsService cartItemsService;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Autowired
+    private ProductInventoryService productInventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (1, 'Away Jersey', 200, 'CFR Cluj', TRUE)");
+        jdbcTemplate.update("INSERT INTO product_inventory (product_id, size, quantity) VALUES (1, 'M', 3)");
+        for (int id = 1; id <= 2; id++) {
+            jdbcTemplate.update("INSERT INTO user (id, email, password, role) VALUES (?, ?, 'x', 'USER')", id, "fan" + id + "@example.com");
+            jdbcTemplate.update("INSERT INTO cart (id, user_id, total_price) VALUES (?, ?, 0)", id, id);
+        }
+        // The tests move the wheel hours ahead, so each one starts with a fresh wheel
+        cartHoldService.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void addToCartHoldsStockUntilTheTtlRunsOut() {
+        CartItems held = cartService.addItemToCart(add(1, 2));
+        CartItems unheld = cartService.addItemToCart(add(2, 2));
+
+        assertNotNull(held.getHeldUntil());
+        // Only one unit was left for the second cart, so its line is not held
+        assertNull(unheld.getHeldUntil());
+        assertEquals(2, reserved());
+        assertEquals(1, productInventoryService.getAvailableQuantity(1, ProductInventory.Size.M));
+
+        // Not due yet
+        cartHoldService.expireUpTo(Instant.now().plus(Duration.ofMinutes(5)));
+        assertEquals(2, reserved());
+
+        cartHoldService.expireUpTo(Instant.now().plus(Duration.ofHours(2)));
+        assertEquals(0, reserved());
+        assertEquals(3, productInventoryService.getAvailableQuantity(1, ProductInventory.Size.M));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE held_until IS NOT NULL", Integer.class));
+        assertEquals(0, cartHoldService.pendingHolds());
+    }
+
+    @Test
+    void checkoutConsumesTheHoldAndExpiryLeavesItAlone() {
+        cartService.addItemToCart(add(1, 3));
+        assertEquals(0, productInventoryService.getAvailableQuantity(1, ProductInventory.Size.M));
+
+        ordersService.createOrder(order(1));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT quantity FROM product_inventory", Integer.class));
+        assertEquals(0, reserved());
+        cartHoldService.expireUpTo(Instant.now().plus(Duration.ofHours(2)));
+        assertEquals(0, reserved());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT quantity FROM product_inventory", Integer.class));
+    }
+
+    @Test
+    void changingOrRemovingALineMovesItsHold() {
+        CartItems item = cartService.addItemToCart(add(1, 1));
+        CartItems update = new CartItems();
+        update.setQuantity(3);
+        cartItemsService.updateCartItems(item.getId(), update);
+        assertEquals(3, reserved());
+
+        cartItemsService.deleteCartItems(item.getId());
+        assertEquals(0, reserved());
+        cartHoldService.expireUpTo(Instant.now().plus(Duration.ofHours(2)));
+        assertEquals(0, reserved());
+    }
+
+    private int reserved() {
+        return jdbcTemplate.queryForObject("SELECT reserved FROM product_inventory", Integer.class);
+    }
+
+    private static AddToCartDTO add(int cartId, int quantity) {
+        AddToCartDTO add = new AddToCartDTO();
+        add.setCartId(cartId);
+        add.setProductId(1);
+        add.setSize("M");
+        add.setQuantity(quantity);
+        return add;
+    }
+
+    private static CreateOrderDTO order(int userId) {
+        CreateOrderDTO order = new CreateOrderDTO();
+        order.setUserId(userId);
+        order.setCity("Cluj-Napoca");
+        return order;
+    }
+}
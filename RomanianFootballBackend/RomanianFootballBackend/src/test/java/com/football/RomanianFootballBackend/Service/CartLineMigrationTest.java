@@ -0,0 +1,85 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CartLineMigrationTest {
+
+    @Autowired
+    private CartLineMigration cartLineMigration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        // A table from before the constraint
+        jdbcTemplate.execute("ALTER TABLE cart_items DROP CONSTRAINT uk_cart_items_line");
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (1, 'Home Jersey', 200, 'Dinamo', TRUE)");
+        jdbcTemplate.update("INSERT INTO product_inventory (product_id, size, quantity, reserved) VALUES (1, 'M', 50, 1)");
+        jdbcTemplate.update("INSERT INTO user (id, email, password, role) VALUES (1, 'fan@example.com', 'x', 'USER')");
+        jdbcTemplate.update("INSERT INTO cart (id, user_id, total_price) VALUES (1, 1, 1400)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+        jdbcTemplate.execute("ALTER TABLE cart_items ADD CONSTRAINT uk_cart_items_line UNIQUE (cart_id, product_id, size, player, number)");
+    }
+
+    @Test
+    void nullsAreBlankedAndDuplicateLinesMerged() {
+        // Three adds of the plain shirt, one of them held, two of the same Hagi shirt and one other
+        line(null, null, 1, null);
+        line(null, "", 2, Timestamp.from(Instant.now().plusSeconds(900)));
+        line("Hagi", "10", 1, null);
+        line("", null, 1, null);
+        line("Hagi", "10", 1, null);
+        line("Mutu", null, 1, null);
+
+        cartLineMigration.migrate();
+
+        List<Map<String, Object>> lines = jdbcTemplate.queryForList(
+                "SELECT player, number, quantity, price, held_until FROM cart_items ORDER BY id");
+        assertEquals(3, lines.size());
+        assertLine(lines.get(0), "", "", 4, "800");
+        assertLine(lines.get(1), "Hagi", "10", 2, "400");
+        assertLine(lines.get(2), "Mutu", "", 1, "200");
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT reserved FROM product_inventory", Integer.class));
+
+        // Nothing left to do, and the constraint can go on
+        cartLineMigration.migrate();
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items", Integer.class));
+    }
+
+    private void line(String player, String number, int quantity, Timestamp heldUntil) {
+        jdbcTemplate.update("INSERT INTO cart_items (cart_id, product_id, size, player, number, quantity, price, held_until) " +
+                "VALUES (1, 1, 'M', ?, ?, ?, ?, ?)", player, number, quantity, quantity * 200, heldUntil);
+    }
+
+    private static void assertLine(Map<String, Object> line, String player, String number, int quantity, String price) {
+        assertEquals(player, line.get("player"));
+        assertEquals(number, line.get("number"));
+        assertEquals(quantity, ((Number) line.get("quantity")).intValue());
+        assertEquals(0, ((BigDecimal) line.get("price")).compareTo(new BigDecimal(price)));
+        assertNull(line.get("held_until"));
+    }
+}
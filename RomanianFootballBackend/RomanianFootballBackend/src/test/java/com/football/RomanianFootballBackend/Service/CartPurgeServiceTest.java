@@ -0,0 +1,107 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.AddToCartDTO;
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {"cart.purge.chunk-size=3", "cart.purge.pause-ms=0"})
+@ActiveProfiles("test")
+class CartPurgeServiceTest {
+
+    private static final Instant LONG_AGO = Instant.now().minus(Duration.ofDays(60));
+
+    @Autowired
+    private CartPurgeService cartPurgeService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (1, 'Home Jersey', 200, 'Dinamo', TRUE)");
+        for (int id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO user (id, email, password, role) VALUES (?, ?, 'x', 'USER')", id, "fan" + id + "@example.com");
+            jdbcTemplate.update("INSERT INTO cart (id, user_id, total_price) VALUES (?, ?, 0)", id, id);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void staleCartsAreEmptiedAChunkAtATime() {
+        // Interleaved, so every chunk spans both carts
+        for (int i = 0; i < 7; i++) {
+            line(1, "Stale " + i, null);
+            line(2, "Active " + i, null);
+        }
+        // Cart 3 is stale too, but one of its lines still holds stock
+        line(3, "Released", null);
+        line(3, "Held", Instant.now().plusSeconds(600));
+        jdbcTemplate.update("UPDATE cart SET last_activity = ? WHERE id IN (1, 3)", Timestamp.from(LONG_AGO));
+        jdbcTemplate.update("UPDATE cart SET total_price = (SELECT SUM(price) FROM cart_items WHERE cart_id = cart.id)");
+        long linesBefore = cartPurgeService.getStats().linesDeleted();
+
+        CartPurgeService.PurgeRun run = cartPurgeService.purgeNow();
+
+        assertEquals(8, run.linesDeleted());
+        assertEquals(3, run.chunks());
+        assertEquals(1, run.cartsEmptied());
+        assertEquals(0, lines(1));
+        assertEquals(7, lines(2));
+        assertEquals(1, lines(3));
+        assertEquals(0, total(1).compareTo(BigDecimal.ZERO));
+        assertEquals(0, total(2).compareTo(new BigDecimal("1400")));
+        assertEquals(0, total(3).compareTo(new BigDecimal("200")));
+        assertEquals(linesBefore + 8, cartPurgeService.getStats().linesDeleted());
+        assertEquals(run, cartPurgeService.getStats().lastRun());
+    }
+
+    @Test
+    void changingACartMarksItActive() {
+        line(1, "Old", null);
+        jdbcTemplate.update("UPDATE cart SET last_activity = ? WHERE id = 1", Timestamp.from(LONG_AGO));
+
+        AddToCartDTO add = new AddToCartDTO();
+        add.setCartId(1);
+        add.setProductId(1);
+        add.setSize("M");
+        add.setQuantity(1);
+        cartService.addItemToCart(add);
+
+        assertEquals(0, cartPurgeService.purgeNow().linesDeleted());
+        assertEquals(2, lines(1));
+    }
+
+    private void line(int cartId, String player, Instant heldUntil) {
+        jdbcTemplate.update("INSERT INTO cart_items (cart_id, product_id, size, player, number, quantity, price, held_until) " +
+                "VALUES (?, 1, 'L', ?, '', 1, 200, ?)", cartId, player, heldUntil == null ? null : Timestamp.from(heldUntil));
+    }
+
+    private int lines(int cartId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE cart_id = ?", Integer.class, cartId);
+    }
+
+    private BigDecimal total(int cartId) {
+        return jdbcTemplate.queryForObject("SELECT total_price FROM cart WHERE id = ?", BigDecimal.class, cartId);
+    }
+}
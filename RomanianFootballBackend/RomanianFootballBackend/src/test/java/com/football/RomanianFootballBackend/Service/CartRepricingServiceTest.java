@@ -0,0 +1,122 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.Entity.Product;
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "cart.reprice.batch-size=3")
+@ActiveProfiles("test")
+class CartRepricingServiceTest {
+
+    @SpyBean
+    private CartRepricingService cartRepricingService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (1, 'Home Jersey', 200, 'Dinamo', TRUE)");
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (2, 'Scarf', 50, 'Dinamo', TRUE)");
+        for (int id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO user (id, email, password, role) VALUES (?, ?, 'x', 'USER')", id, "fan" + id + "@example.com");
+            jdbcTemplate.update("INSERT INTO cart (id, user_id, total_price) VALUES (?, ?, 0)", id, id);
+        }
+        // Seven jersey lines spread over the carts, two of them for two shirts, and a scarf in cart 1
+        for (int i = 0; i < 7; i++) {
+            line(i % 3 + 1, 1, "Player " + i, i < 2 ? 2 : 1, 200);
+        }
+        line(1, 2, "", 1, 50);
+        jdbcTemplate.update("UPDATE cart SET total_price = (SELECT SUM(price) FROM cart_items WHERE cart_id = cart.id)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void linesAndTotalsAreRepricedInBatches() {
+        jdbcTemplate.update("UPDATE product SET price = 150 WHERE id = 1");
+
+        CartRepricingService.RepriceRun run = cartRepricingService.reprice(1);
+
+        assertEquals(3, run.batches());
+        assertEquals(7, run.linesRepriced());
+        // Cart 1: jerseys for 2 + 1 + 1 shirts and the scarf; cart 2: 2 + 1 shirts; cart 3: 1 + 1 shirts
+        assertEquals(0, total(1).compareTo(new BigDecimal("650")));
+        assertEquals(0, total(2).compareTo(new BigDecimal("450")));
+        assertEquals(0, total(3).compareTo(new BigDecimal("300")));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT price FROM cart_items WHERE product_id = 2", BigDecimal.class)
+                .compareTo(new BigDecimal("50")));
+        assertTrue(cartService.findTotalDrift().isEmpty());
+
+        // Nothing left to change
+        assertEquals(0, cartRepricingService.reprice(1).linesRepriced());
+    }
+
+    @Test
+    void priceChangeRepricesOpenCartsInTheBackground() throws InterruptedException {
+        Product update = new Product();
+        update.setPrice(new BigDecimal("250"));
+        productService.updateProduct(1, update);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        // Cart 1 has the last jersey line, so it is repriced by the last batch
+        while (total(1).compareTo(new BigDecimal("1050")) != 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, total(1).compareTo(new BigDecimal("1050")));
+        assertEquals(0, total(3).compareTo(new BigDecimal("500")));
+        assertTrue(cartService.findTotalDrift().isEmpty());
+    }
+
+    @Test
+    void failedPassIsRetried() throws InterruptedException {
+        doThrow(new QueryTimeoutException("Lock wait timeout")).doCallRealMethod().when(cartRepricingService).reprice(1);
+        Product update = new Product();
+        update.setPrice(new BigDecimal("250"));
+        productService.updateProduct(1, update);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (total(1).compareTo(new BigDecimal("1050")) != 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, total(1).compareTo(new BigDecimal("1050")));
+        verify(cartRepricingService, times(2)).reprice(1);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE product_id = 1 AND price <> quantity * 250",
+                Integer.class));
+    }
+
+    private void line(int cartId, int productId, String player, int quantity, int unitPrice) {
+        jdbcTemplate.update("INSERT INTO cart_items (cart_id, product_id, size, player, number, quantity, price) " +
+                "VALUES (?, ?, 'M', ?, '', ?, ?)", cartId, productId, player, quantity, quantity * unitPrice);
+    }
+
+    private BigDecimal total(int cartId) {
+        return jdbcTemplate.queryForObject("SELECT total_price FROM cart WHERE id = ?", BigDecimal.class, cartId);
+    }
+}
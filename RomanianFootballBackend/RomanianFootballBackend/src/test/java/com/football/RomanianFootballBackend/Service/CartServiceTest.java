@@ -0,0 +1,200 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.AddToCartDTO;
+import com.football.RomanianFootballBackend.DTO.CartBatchDTO.CartOperationDTO;
+import com.football.RomanianFootballBackend.DTO.CartItemDTO;
+import com.football.RomanianFootballBackend.Entity.CartItems;
+import com.football.RomanianFootballBackend.TestDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CartServiceTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartItemsService cartItemsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (1, 'Home Jersey', 200, 'Dinamo', TRUE)");
+        for (int id = 1; id <= 2; id++) {
+            jdbcTemplate.update("INSERT INTO user (id, email, password, role) VALUES (?, ?, 'x', 'USER')", id, "fan" + id + "@example.com");
+            jdbcTemplate.update("INSERT INTO cart (id, user_id, total_price) VALUES (?, ?, 0)", id, id);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void mutationsCostTheSameOnAFiftyLineCartAsOnAnEmptyOne() {
+        for (int i = 0; i < 50; i++) {
+            cartService.addItemToCart(add(2, 1, "Player " + i));
+        }
+        assertEquals(50, lines(2));
+
+        assertEquals(statementsToAddUpdateAndDelete(1, BigDecimal.ZERO),
+                statementsToAddUpdateAndDelete(2, new BigDecimal("10000")));
+        assertEquals(0, total(1).compareTo(BigDecimal.ZERO));
+        assertEquals(0, total(2).compareTo(new BigDecimal("10000")));
+    }
+
+    @Test
+    void addingTheSameLineAgainBumpsItsQuantity() {
+        cartService.addItemToCart(add(1, 1));
+        CartItems merged = cartService.addItemToCart(add(1, 2));
+        cartService.addItemToCart(add(1, 1, "Dorinel"));
+
+        assertEquals(2, lines(1));
+        assertEquals(3, merged.getQuantity());
+        assertEquals(0, merged.getPrice().compareTo(new BigDecimal("600")));
+        assertEquals(0, total(1).compareTo(new BigDecimal("800")));
+    }
+
+    @Test
+    void batchAppliesEveryOperationWithOneTotalUpdate() {
+        CartItems kept = cartService.addItemToCart(add(1, 1));
+        CartItems removed = cartService.addItemToCart(add(1, 1, "Hagi"));
+
+        CartService.CartContents cart = cartService.applyBatch(1, List.of(
+                operation(CartOperationDTO.Type.UPDATE, kept.getId(), 4),
+                operation(CartOperationDTO.Type.REMOVE, removed.getId(), null),
+                addOperation("Mutu", 2),
+                addOperation("Mutu", 1)));
+
+        assertEquals(2, cart.items().size());
+        assertEquals(0, cart.totalPrice().compareTo(new BigDecimal("1400")));
+        assertEquals(0, total(1).compareTo(new BigDecimal("1400")));
+        assertEquals(List.of(), cartService.findTotalDrift());
+    }
+
+    @Test
+    void invalidOperationRollsBackTheWholeBatch() {
+        CartItems kept = cartService.addItemToCart(add(1, 1));
+        CartItems elsewhere = cartService.addItemToCart(add(2, 1));
+
+        assertThrows(RuntimeException.class, () -> cartService.applyBatch(1, List.of(
+                operation(CartOperationDTO.Type.UPDATE, kept.getId(), 5),
+                // A line of another cart
+                operation(CartOperationDTO.Type.REMOVE, elsewhere.getId(), null))));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT quantity FROM cart_items WHERE id = ?", Integer.class, kept.getId()));
+        assertEquals(0, total(1).compareTo(new BigDecimal("200")));
+        assertEquals(1, lines(2));
+    }
+
+    @Test
+    void cartViewIsOneStatementWithThePrimaryPhoto() {
+        jdbcTemplate.update("INSERT INTO product_photos (product_id, photo_url, is_primary, display_order) VALUES " +
+                "(1, 'C:\\photos\\back.jpg', FALSE, 1), (1, 'C:\\photos\\front.jpg', TRUE, 0)");
+        for (int i = 0; i < 20; i++) {
+            cartService.addItemToCart(add(1, 1, "Player " + i));
+        }
+
+        statistics.clear();
+        List<CartItemDTO> items = cartItemsService.getCartItemsByUserId(1);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(20, items.size());
+        assertEquals("Player 0", items.get(0).getPlayer());
+        assertEquals("/images/front.jpg", items.get(0).getProduct().getPhotoUrl());
+        assertEquals(0, items.get(0).getProduct().getPrice().compareTo(new BigDecimal("200")));
+        assertEquals(List.of(), cartItemsService.getCartItemsByUserId(99));
+    }
+
+    @Test
+    void reconciliationReportsAndRepairsDriftedTotals() {
+        cartService.addItemToCart(add(1, 2));
+        cartService.addItemToCart(add(2, 1));
+        // A total written behind the service's back
+        jdbcTemplate.update("UPDATE cart SET total_price = 150 WHERE id = 2");
+
+        List<CartService.TotalDrift> drift = cartService.reconcileTotals();
+
+        assertEquals(1, drift.size());
+        assertEquals(2, drift.get(0).cartId());
+        assertEquals(0, drift.get(0).storedTotal().compareTo(new BigDecimal("150")));
+        assertEquals(0, drift.get(0).lineTotal().compareTo(new BigDecimal("200")));
+        assertEquals(0, total(2).compareTo(new BigDecimal("200")));
+        assertEquals(List.of(), cartService.findTotalDrift());
+    }
+
+    private long statementsToAddUpdateAndDelete(int cartId, BigDecimal total) {
+        statistics.clear();
+        CartItems item = cartService.addItemToCart(add(cartId, 1));
+        CartItems update = new CartItems();
+        update.setQuantity(3);
+        cartItemsService.updateCartItems(item.getId(), update);
+        assertEquals(0, total(cartId).compareTo(total.add(new BigDecimal("600"))));
+        cartItemsService.deleteCartItems(item.getId());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private int lines(int cartId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE cart_id = ?", Integer.class, cartId);
+    }
+
+    private BigDecimal total(int cartId) {
+        return jdbcTemplate.queryForObject("SELECT total_price FROM cart WHERE id = ?", BigDecimal.class, cartId);
+    }
+
+    private static CartOperationDTO operation(CartOperationDTO.Type type, Integer itemId, Integer quantity) {
+        CartOperationDTO operation = new CartOperationDTO();
+        operation.setType(type);
+        operation.setItemId(itemId);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+
+    private static CartOperationDTO addOperation(String player, int quantity) {
+        CartOperationDTO operation = operation(CartOperationDTO.Type.ADD, null, quantity);
+        operation.setProductId(1);
+        operation.setSize("L");
+        operation.setPlayer(player);
+        return operation;
+    }
+
+    private static AddToCartDTO add(int cartId, int quantity) {
+        return add(cartId, quantity, null);
+    }
+
+    private static AddToCartDTO add(int cartId, int quantity, String player) {
+        AddToCartDTO add = new AddToCartDTO();
+        add.setPlayer(player);
+        add.setCartId(cartId);
+        add.setProductId(1);
+        add.setSize("M");
+        add.setQuantity(quantity);
+        return add;
+    }
+}
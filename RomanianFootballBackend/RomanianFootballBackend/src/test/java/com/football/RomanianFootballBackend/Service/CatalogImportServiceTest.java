@@ -0,0 +1,164 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogImportServiceTest {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+    }
+
+    @Test
+    void ndjsonRowsAreImportedAndBadRowsReportedWithoutAbortingTheLoad() throws IOException {
+        String feed = """
+                {"name":"Barcelona Home","team":"Barcelona","price":89.99,"licenced":true,"sizes":{"S":25,"m":40},"photos":["/images/barca_1.jpg","/images/barca_2.jpg"]}
+                {"team":"Nameless","price":10}
+
+                {"name":"Rapid Away","price":-1}
+                {"name":"Dinamo Home","price":120,"sizes":{"XS":3}}
+                {"name":"Broken",
+                {"name":"Steaua Retro","team":"Steaua București","price":"149.50"}
+                """;
+
+        CatalogImportService.ImportReport report = catalogImportService.importCatalog(stream(feed),
+                DataFormat.NDJSON);
+
+        assertEquals(2, report.imported());
+        assertEquals(4, report.failed());
+        assertEquals(List.of(2, 4, 5, 6), report.errors().stream().map(CatalogImportService.RowError::line).toList());
+        assertEquals("name is required", report.errors().get(0).message());
+        assertEquals("Unknown size or column: XS", report.errors().get(2).message());
+
+        assertEquals(List.of("Barcelona Home", "Steaua Retro"),
+                productService.getAllProducts().stream().map(product -> product.getName()).toList());
+        assertEquals("/images/barca_1.jpg", productService.getAllProducts().getFirst().getPhotoUrl());
+        assertEquals(Map.of("S", 25, "M", 40), stock("Barcelona Home"));
+    }
+
+    @Test
+    void sizeGivenTwiceInDifferentCaseIsRejected() throws IOException {
+        String feed = """
+                {"name":"Barcelona Home","price":89.99,"sizes":{"m":1,"M":2}}
+                {"name":"Dinamo Home","price":120,"sizes":{"M":3}}
+                """;
+
+        CatalogImportService.ImportReport report = catalogImportService.importCatalog(stream(feed),
+                DataFormat.NDJSON);
+
+        assertEquals(1, report.imported());
+        assertEquals(List.of(new CatalogImportService.RowError(1, "size M is given more than once")), report.errors());
+        assertEquals(Map.of("M", 3), stock("Dinamo Home"));
+    }
+
+    @Test
+    void csvSupportsQuotedFieldsAndSizeColumns() throws IOException {
+        String feed = "name,team,description,price,licenced,S,XL,photos\r\n"
+                + "Liverpool Home,Liverpool,\"Red, classic\nwith \"\"YNWA\"\" print\",149.50,yes,5,,/images/lfc_1.jpg|/images/lfc_2.jpg\r\n"
+                + "Juventus Away,Juventus,,abc,no,1,2,\r\n"
+                + "Juventus Home,Juventus,,99,no,1,2,\r\n";
+
+        CatalogImportService.ImportReport report = catalogImportService.importCatalog(stream(feed),
+                DataFormat.CSV);
+
+        assertEquals(2, report.imported());
+        assertEquals(List.of(new CatalogImportService.RowError(4, "price and size quantities must be numbers")),
+                report.errors());
+        assertEquals("Red, classic\nwith \"YNWA\" print", jdbcTemplate.queryForObject(
+                "SELECT description FROM product WHERE name = 'Liverpool Home'", String.class));
+        assertEquals(Map.of("S", 5), stock("Liverpool Home"));
+        assertEquals(Map.of("S", 1, "XL", 2), stock("Juventus Home"));
+
+        assertThrows(IllegalArgumentException.class, () -> catalogImportService.importCatalog(
+                stream("name,price,colour\nKit,10,red\n"), DataFormat.CSV));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void largeFeedLoadsInBatches(TestReporter reporter) throws IOException {
+        int rows = 20_000;
+        // Generated lazily so the feed never sits in memory as a whole
+        Enumeration<InputStream> lines = new Enumeration<>() {
+            private int next;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < rows;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                int i = next++;
+                return stream("{\"name\":\"Kit " + i + "\",\"team\":\"Team " + (i % 50) + "\",\"price\":" + (50 + i % 300)
+                        + ",\"sizes\":{\"S\":1,\"M\":2,\"L\":3},\"photos\":[\"/images/kit_" + i + ".jpg\"]}\n");
+            }
+        };
+
+        CatalogImportService.ImportReport report = catalogImportService.importCatalog(new SequenceInputStream(lines),
+                DataFormat.NDJSON);
+
+        reporter.publishEntry("import of " + rows + " products", report.imported() + " products with " + rows * 3
+                + " inventory rows and " + rows + " photos in " + report.elapsedMillis() + " ms");
+        assertEquals(rows, report.imported());
+        assertEquals(rows * 3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_inventory", Integer.class));
+        assertEquals(rows, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM product_photos WHERE is_primary = TRUE", Integer.class));
+    }
+
+    private Map<String, Integer> stock(String productName) {
+        Map<String, Integer> stock = new HashMap<>();
+        jdbcTemplate.query("SELECT pi.size, pi.quantity FROM product_inventory pi JOIN product p ON p.id = pi.product_id "
+                        + "WHERE p.name = ?",
+                (RowCallbackHandler) row -> stock.put(row.getString(1), row.getInt(2)), productName);
+        return stock;
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,163 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.CreateOrderDTO;
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Checkout against the size of the cart: statements sent to the database (a JDBC batch counts once, whoever sends it,
+// JPA or JdbcTemplate), which must not grow with it, and, as a benchmark, wall time
+@SpringBootTest
+@ActiveProfiles("test")
+class CheckoutBenchmarkTest {
+
+    private static final int[] CART_SIZES = {1, 10, 50, 200};
+    private static final int ROUNDS = 15;
+
+    // Only the benchmark's own statements are counted, not those of scheduled jobs
+    private static volatile Thread measured;
+    private static int roundTrips;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (1, 'Home Jersey', 200, 'Dinamo', TRUE)");
+        jdbcTemplate.update("INSERT INTO product_inventory (product_id, size, quantity) VALUES (1, 'M', 1000000)");
+        jdbcTemplate.update("INSERT INTO user (id, email, password, role) VALUES (1, 'fan@example.com', 'x', 'USER')");
+        jdbcTemplate.update("INSERT INTO cart (id, user_id, total_price) VALUES (1, 1, 0)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void statementsPerCheckoutDoNotGrowWithTheCart() {
+        // The first checkout also warms up the caches it reads
+        checkout(1);
+        List<Integer> statements = new ArrayList<>();
+        for (int lines : CART_SIZES) {
+            statements.add((int) checkout(lines)[0]);
+        }
+        // Lines of one SKU, so the stock decrements stay one per checkout as well
+        statements.forEach(count -> assertEquals(statements.get(0), count, "statements per checkout " + statements));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void checkoutTimeAgainstCartSize(TestReporter reporter) {
+        // Warm-up
+        for (int i = 0; i < ROUNDS; i++) {
+            checkout(50);
+        }
+        for (int lines : CART_SIZES) {
+            long[] micros = new long[ROUNDS];
+            int trips = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                long[] result = checkout(lines);
+                trips = (int) result[0];
+                micros[i] = result[1];
+            }
+            Arrays.sort(micros);
+            reporter.publishEntry("checkout of " + lines + " lines",
+                    trips + " statements, median " + micros[ROUNDS / 2] + " us");
+        }
+    }
+
+    // Returns {statements, microseconds}
+    private long[] checkout(int lines) {
+        List<Object[]> rows = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            rows.add(new Object[]{"Player " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO cart_items (cart_id, product_id, size, player, number, quantity, price) " +
+                "VALUES (1, 1, 'M', ?, '', 1, 200)", rows);
+
+        CreateOrderDTO order = new CreateOrderDTO();
+        order.setUserId(1);
+        order.setCity("Bucuresti");
+        roundTrips = 0;
+        measured = Thread.currentThread();
+        long start = System.nanoTime();
+        ordersService.createOrder(order);
+        long micros = (System.nanoTime() - start) / 1_000;
+        measured = null;
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items", Integer.class));
+        return new long[]{roundTrips, micros};
+    }
+
+    @TestConfiguration
+    static class CountingDataSource {
+
+        @Bean
+        static BeanPostProcessor countStatements() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        // Connections and statements handed out are wrapped too; executing a statement or a batch is one round trip
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target) {
+            InvocationHandler handler = (proxy, method, arguments) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, arguments);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (method.getName().startsWith("execute") && Thread.currentThread() == measured) {
+                    roundTrips++;
+                }
+                if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+                    return proxy(Connection.class, connection);
+                }
+                if (result instanceof Statement statement && !(target instanceof Statement)) {
+                    return proxy(interfaceOf(statement), statement);
+                }
+                return result;
+            };
+            return (T) Proxy.newProxyInstance(CheckoutBenchmarkTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Class<Statement> interfaceOf(Statement statement) {
+            Class<?> type = statement instanceof java.sql.CallableStatement ? java.sql.CallableStatement.class
+                    : statement instanceof java.sql.PreparedStatement ? java.sql.PreparedStatement.class
+                    : Statement.class;
+            return (Class<Statement>) type;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.CreateOrderDTO;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "inventory.hot.enabled=true",
+        "inventory.hot.journal-dir=target/inventory-journal-test",
+        // Flushes are triggered by the tests
+        "inventory.hot.flush-ms=3600000"
+})
+@ActiveProfiles("test")
+class HotSkuInventoryTest {
+
+    private static final Path JOURNAL = Path.of("target/inventory-journal-test");
+
+    @Autowired
+    private HotSkuInventory hotSkuInventory;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Autowired
+    private ProductInventoryService productInventoryService;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (1, 'Launch Jersey', 200, 'FCSB', TRUE)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        hotSkuInventory.getHotSkus().forEach(sku -> hotSkuInventory.disable(sku.productId(), sku.size()));
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void countersAreAuthoritativeAndReachTheTableOnFlush() throws Exception {
+        int stock = 50;
+        int shoppers = 300;
+        jdbcTemplate.update("INSERT INTO product_inventory (product_id, size, quantity) VALUES (1, 'M', ?)", stock);
+        hotSkuInventory.enable(1, ProductInventory.Size.M);
+        for (int i = 1; i <= shoppers; i++) {
+            shopper(i);
+            cartLine(i, "M", 1);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        List<Future<?>> checkouts = new ArrayList<>();
+        for (int i = 1; i <= shoppers; i++) {
+            int userId = i;
+            checkouts.add(pool.submit(() -> {
+                start.await();
+                try {
+                    ordersService.createOrder(order(userId));
+                    sold.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    // Sold out
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> checkout : checkouts) {
+            checkout.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(stock, sold.get());
+        assertEquals(stock, jdbcTemplate.queryForObject("SELECT SUM(quantity) FROM order_items", Integer.class));
+        assertEquals(0, hotSkuInventory.getHotSkus().get(0).available());
+        // The table catches up only when the journal is flushed
+        assertEquals(stock, quantity("M"));
+        hotSkuInventory.flush();
+        assertEquals(0, quantity("M"));
+    }
+
+    @Test
+    void failedCheckoutHandsHotUnitsBack() throws Exception {
+        jdbcTemplate.update("INSERT INTO product_inventory (product_id, size, quantity) VALUES (1, 'M', 5), (1, 'L', 1)");
+        hotSkuInventory.enable(1, ProductInventory.Size.M);
+        shopper(1);
+        cartLine(1, "M", 2);
+        cartLine(1, "L", 2);
+
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> ordersService.createOrder(order(1)));
+
+        assertEquals(List.of(new InsufficientStockException.Shortage(1, "Launch Jersey", ProductInventory.Size.L, 2, 1)),
+                e.getShortages());
+        assertEquals(5, hotSkuInventory.getHotSkus().get(0).available());
+        hotSkuInventory.flush();
+        assertEquals(5, quantity("M"));
+    }
+
+    @Test
+    void journaledReservationsSurviveACrashBeforeTheFlush() throws Exception {
+        jdbcTemplate.update("INSERT INTO product_inventory (product_id, size, quantity) VALUES (1, 'L', 10)");
+        hotSkuInventory.enable(1, ProductInventory.Size.L);
+        for (int i = 1; i <= 3; i++) {
+            shopper(i);
+            cartLine(i, "L", 1);
+            ordersService.createOrder(order(i));
+        }
+        assertEquals(10, quantity("L"));
+
+        // A fresh instance over the same journal is what the next start would run
+        beanFactory.createBean(HotSkuInventory.class);
+
+        assertEquals(7, quantity("L"));
+        try (Stream<Path> segments = Files.list(JOURNAL)) {
+            assertTrue(segments.findAny().isEmpty());
+        }
+    }
+
+    @Test
+    void replayLeavesOutReservationsOfOrdersThatNeverCommitted() throws Exception {
+        jdbcTemplate.update("INSERT INTO product_inventory (product_id, size, quantity) VALUES (1, 'L', 10)");
+        hotSkuInventory.enable(1, ProductInventory.Size.L);
+        shopper(1);
+        cartLine(1, "L", 1);
+        ordersService.createOrder(order(1));
+        // Made durable for an order whose commit never happened
+        StockKey key = new StockKey(1, ProductInventory.Size.L);
+        assertEquals(HotSkuInventory.Reservation.RESERVED, hotSkuInventory.tryReserve(key, 2, 999_999));
+        hotSkuInventory.awaitDurable();
+
+        beanFactory.createBean(HotSkuInventory.class);
+
+        assertEquals(9, quantity("L"));
+    }
+
+    @Test
+    void reservationFlushedBeforeItsOrderCommitsIsNotLostInACrash() throws Exception {
+        jdbcTemplate.update("INSERT INTO product_inventory (product_id, size, quantity) VALUES (1, 'L', 10)");
+        hotSkuInventory.enable(1, ProductInventory.Size.L);
+        StockKey key = new StockKey(1, ProductInventory.Size.L);
+        // Two orders still in flight when the flush runs; only the first one goes on to commit
+        assertEquals(HotSkuInventory.Reservation.RESERVED, hotSkuInventory.tryReserve(key, 2, 999_998));
+        assertEquals(HotSkuInventory.Reservation.RESERVED, hotSkuInventory.tryReserve(key, 3, 999_999));
+        hotSkuInventory.awaitDurable();
+
+        hotSkuInventory.flush();
+        assertEquals(10, quantity("L"));
+
+        shopper(1);
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, status, total_price, city) VALUES (999998, 1, 'PENDING', 400, 'Bucuresti')");
+        hotSkuInventory.complete(999_998);
+
+        // The crash comes before the next flush
+        beanFactory.createBean(HotSkuInventory.class);
+
+        assertEquals(8, quantity("L"));
+    }
+
+    @Test
+    void hotRowsAreOwnedByTheCountersUntilDisabled() throws Exception {
+        jdbcTemplate.update("INSERT INTO product_inventory (id, product_id, size, quantity) VALUES (7, 1, 'S', 4)");
+        hotSkuInventory.enable(1, ProductInventory.Size.S);
+        ProductInventory update = new ProductInventory();
+        update.setQuantity(40);
+
+        assertThrows(IllegalStateException.class, () -> productInventoryService.updateProductInventory(7, update));
+        assertThrows(IllegalArgumentException.class, () -> hotSkuInventory.enable(1, ProductInventory.Size.XL));
+
+        hotSkuInventory.disable(1, ProductInventory.Size.S);
+        assertEquals(List.of(), hotSkuInventory.getHotSkus());
+        assertEquals(40, productInventoryService.updateProductInventory(7, update).getQuantity());
+    }
+
+    private int quantity(String size) {
+        return jdbcTemplate.queryForObject(
+                "SELECT quantity FROM product_inventory WHERE product_id = 1 AND size = ?", Integer.class, size);
+    }
+
+    private void shopper(int id) {
+        jdbcTemplate.update("INSERT INTO user (id, email, password, role) VALUES (?, ?, 'x', 'USER')", id, "fan" + id + "@example.com");
+        jdbcTemplate.update("INSERT INTO cart (id, user_id, total_price) VALUES (?, ?, 0)", id, id);
+    }
+
+    private void cartLine(int cartId, String size, int quantity) {
+        jdbcTemplate.update("INSERT INTO cart_items (cart_id, product_id, size, quantity, price) VALUES (?, 1, ?, ?, 200)",
+                cartId, size, quantity);
+    }
+
+    private static CreateOrderDTO order(int userId) {
+        CreateOrderDTO order = new CreateOrderDTO();
+        order.setUserId(userId);
+        order.setCity("Bucuresti");
+        return order;
+    }
+}
@@ -0,0 +1,118 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InventoryJournalTest {
+
+    private static final StockKey MEDIUM = new StockKey(1, ProductInventory.Size.M);
+    private static final StockKey LARGE = new StockKey(1, ProductInventory.Size.L);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaySkipsCheckpointedRecordsAndATornTail() throws Exception {
+        InventoryJournal journal = new InventoryJournal(directory, 0);
+        journal.append(MEDIUM, -2);
+        journal.append(LARGE, -1);
+        journal.append(MEDIUM, -3);
+        journal.append(LARGE, 1);
+        journal.sync(journal.lastSequence());
+        // A crash in the middle of the next write
+        try (var out = Files.newOutputStream(Files.list(directory).findFirst().orElseThrow(), StandardOpenOption.APPEND)) {
+            out.write("5,1,M,-".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        assertEquals(new InventoryJournal.Replay(4, Map.of(MEDIUM, -5), Map.of(), journalSegments()),
+                InventoryJournal.replay(directory, 0));
+        assertEquals(Map.of(MEDIUM, -3, LARGE, 1), InventoryJournal.replay(directory, 2).deltas());
+    }
+
+    @Test
+    void replayKeepsTheChangesOfEachOrderApart() throws Exception {
+        InventoryJournal journal = new InventoryJournal(directory, 0);
+        journal.append(MEDIUM, -2, 7);
+        journal.append(MEDIUM, -1, 8);
+        journal.append(LARGE, -1, 8);
+        // Order 9 rolled back and handed its units back
+        journal.append(LARGE, -4, 9);
+        journal.append(LARGE, 4, 9);
+        journal.sync(journal.lastSequence());
+        // Torn after the delta; without its order id it would pass for a change of no order
+        try (var out = Files.newOutputStream(Files.list(directory).findFirst().orElseThrow(), StandardOpenOption.APPEND)) {
+            out.write("6,1,M,-3".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        InventoryJournal.Replay replay = InventoryJournal.replay(directory, 0);
+
+        assertEquals(5, replay.lastSequence());
+        assertEquals(Map.of(MEDIUM, -3, LARGE, -1), replay.deltas());
+        assertEquals(Map.of(7, Map.of(MEDIUM, -2), 8, Map.of(MEDIUM, -1, LARGE, -1)), replay.orderDeltas());
+        assertEquals(Map.of(MEDIUM, -2), replay.deltasWithout(List.of(8)));
+    }
+
+    @Test
+    void failedBatchIsRetriedByTheNextDrain() throws Exception {
+        InventoryJournal journal = new InventoryJournal(directory, 10);
+        journal.append(MEDIUM, -2);
+        InventoryJournal.Batch failed = journal.drain();
+        journal.restore(failed);
+        journal.append(MEDIUM, -1);
+
+        InventoryJournal.Batch retry = journal.drain();
+        assertEquals(12, retry.lastSequence());
+        assertEquals(Map.of(MEDIUM, -3), retry.deltas());
+        assertEquals(2, retry.segments().size());
+
+        journal.discard(retry);
+        assertNull(journal.drain());
+        // Only the open, still empty segment is left
+        assertEquals(1, journalSegments().size());
+        journal.close();
+    }
+
+    @Test
+    void openOrdersAreCarriedPastTheDrainUntilComplete() throws Exception {
+        InventoryJournal journal = new InventoryJournal(directory, 0);
+        journal.append(MEDIUM, -1);
+        journal.append(MEDIUM, -2, 7);
+        journal.append(LARGE, -1, 7);
+
+        InventoryJournal.Batch first = journal.drain();
+        assertEquals(3, first.lastSequence());
+        assertEquals(Map.of(MEDIUM, -1), first.deltas());
+        // The flush of the first batch never commits; the second one does
+        journal.restore(first);
+        InventoryJournal.Batch second = journal.drain();
+        assertEquals(Map.of(MEDIUM, -1), second.deltas());
+
+        // Before the second checkpoint the original records count, after it only their latest copy
+        assertEquals(Map.of(7, Map.of(MEDIUM, -2, LARGE, -1)), InventoryJournal.replay(directory, 0).orderDeltas());
+        assertEquals(Map.of(7, Map.of(MEDIUM, -2, LARGE, -1)),
+                InventoryJournal.replay(directory, second.lastSequence()).orderDeltas());
+        journal.discard(second);
+        assertEquals(Map.of(MEDIUM, -2, LARGE, -1), InventoryJournal.replay(directory, second.lastSequence()).deltas());
+
+        journal.complete(7);
+        assertEquals(Map.of(MEDIUM, -2, LARGE, -1), journal.drain().deltas());
+        journal.close();
+    }
+
+    private List<Path> journalSegments() throws Exception {
+        try (var files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
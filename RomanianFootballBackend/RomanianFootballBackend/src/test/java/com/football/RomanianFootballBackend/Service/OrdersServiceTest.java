@@ -0,0 +1,127 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.CreateOrderDTO;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrdersServiceTest {
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (1, 'Drop Jersey', 200, 'Rapid', TRUE)");
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (2, 'Drop Scarf', 50, 'Rapid', TRUE)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void parallelCheckoutsNeverOversellASku() throws Exception {
+        int stock = 50;
+        int shoppers = 300;
+        jdbcTemplate.update("INSERT INTO product_inventory (product_id, size, quantity) VALUES (1, 'M', ?)", stock);
+        for (int i = 1; i <= shoppers; i++) {
+            shopper(i);
+            cartLine(i, 1, "M", 1);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> checkouts = new ArrayList<>();
+        for (int i = 1; i <= shoppers; i++) {
+            int userId = i;
+            checkouts.add(pool.submit(() -> {
+                start.await();
+                try {
+                    ordersService.createOrder(order(userId));
+                    sold.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> checkout : checkouts) {
+            checkout.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(stock, sold.get());
+        assertEquals(shoppers - stock, rejected.get());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT quantity FROM product_inventory", Integer.class));
+        assertEquals(stock, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(stock, jdbcTemplate.queryForObject("SELECT SUM(quantity) FROM order_items", Integer.class));
+    }
+
+    @Test
+    void shortageRollsBackTheWholeCheckoutAndReportsEveryShortLine() {
+        jdbcTemplate.update("INSERT INTO product_inventory (product_id, size, quantity) VALUES (1, 'M', 5), (1, 'L', 1), (2, 'S', 2)");
+        shopper(1);
+        cartLine(1, 1, "M", 2);
+        cartLine(1, 1, "M", 1);
+        cartLine(1, 1, "L", 2);
+        cartLine(1, 2, "S", 3);
+
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> ordersService.createOrder(order(1)));
+
+        assertEquals(List.of(
+                new InsufficientStockException.Shortage(1, "Drop Jersey", ProductInventory.Size.L, 2, 1),
+                new InsufficientStockException.Shortage(2, "Drop Scarf", ProductInventory.Size.S, 3, 2)), e.getShortages());
+        // The M line had already been taken before the L line failed; the rollback puts it back
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT quantity FROM product_inventory WHERE product_id = 1 AND size = 'M'", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items", Integer.class));
+    }
+
+    private void shopper(int id) {
+        jdbcTemplate.update("INSERT INTO user (id, email, password, role) VALUES (?, ?, 'x', 'USER')", id, "fan" + id + "@example.com");
+        jdbcTemplate.update("INSERT INTO cart (id, user_id, total_price) VALUES (?, ?, 0)", id, id);
+    }
+
+    private void cartLine(int cartId, int productId, String size, int quantity) {
+        jdbcTemplate.update("INSERT INTO cart_items (cart_id, product_id, size, quantity, price) VALUES (?, ?, ?, ?, 200)",
+                cartId, productId, size, quantity);
+    }
+
+    private static CreateOrderDTO order(int userId) {
+        CreateOrderDTO order = new CreateOrderDTO();
+        order.setUserId(userId);
+        order.setCity("Bucuresti");
+        return order;
+    }
+}
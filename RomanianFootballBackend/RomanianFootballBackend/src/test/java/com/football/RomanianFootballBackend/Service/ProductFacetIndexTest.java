@@ -0,0 +1,109 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.Entity.Product;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.Repository.ProductInventoryRepository;
+import com.football.RomanianFootballBackend.Repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductFacetIndexTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductInventoryService productInventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    private Product barcelonaHome;
+    private Product barcelonaAway;
+    private Product liverpool;
+
+    @BeforeEach
+    void setUp() {
+        productInventoryRepository.deleteAll();
+        productRepository.deleteAll();
+
+        barcelonaHome = save("Barcelona Home", "Barcelona", "89.99", true);
+        barcelonaAway = save("Barcelona Away", "Barcelona", "249.00", false);
+        liverpool = save("Liverpool Home", "Liverpool", "149.50", true);
+        stock(barcelonaHome, ProductInventory.Size.M, 3);
+        stock(barcelonaAway, ProductInventory.Size.M, 0);
+        stock(liverpool, ProductInventory.Size.M, 5);
+        stock(liverpool, ProductInventory.Size.L, 1);
+        productFacetIndex.rebuild();
+    }
+
+    @Test
+    void filtersAreAndedAcrossFacetsAndOredWithinAFacet() {
+        ProductFacetIndex.FacetResult result = productFacetIndex.filter(Map.of(
+                ProductFacetIndex.TEAM, List.of("Barcelona", "Liverpool"),
+                ProductFacetIndex.SIZE, List.of("M")));
+        assertEquals(List.of(barcelonaHome.getId(), liverpool.getId()), result.productIds());
+
+        result = productFacetIndex.filter(Map.of(ProductFacetIndex.LICENCED, List.of("false")));
+        assertEquals(List.of(barcelonaAway.getId()), result.productIds());
+    }
+
+    @Test
+    void facetCountsIgnoreTheirOwnSelection() {
+        ProductFacetIndex.FacetResult result = productFacetIndex.filter(Map.of(
+                ProductFacetIndex.TEAM, List.of("Barcelona")));
+
+        assertEquals(Map.of("Barcelona", 2, "Liverpool", 1), result.counts().get(ProductFacetIndex.TEAM));
+        assertEquals(Map.of("M", 1, "L", 0), result.counts().get(ProductFacetIndex.SIZE));
+        assertEquals(Map.of("0-100", 1, "100-200", 0, "200-300", 1), result.counts().get(ProductFacetIndex.PRICE));
+    }
+
+    @Test
+    void inventoryChangesUpdateTheSizeFacet() {
+        ProductInventory away = productInventoryRepository.findByProductIdAndSize(
+                barcelonaAway.getId(), ProductInventory.Size.M).orElseThrow();
+        ProductInventory restock = new ProductInventory();
+        restock.setQuantity(4);
+        productInventoryService.updateProductInventory(away.getId(), restock);
+
+        ProductFacetIndex.FacetResult result = productFacetIndex.filter(Map.of(
+                ProductFacetIndex.TEAM, List.of("Barcelona"),
+                ProductFacetIndex.SIZE, List.of("M")));
+        assertEquals(List.of(barcelonaHome.getId(), barcelonaAway.getId()), result.productIds());
+    }
+
+    private Product save(String name, String team, String price, boolean licenced) {
+        Product product = new Product();
+        product.setName(name);
+        product.setTeam(team);
+        product.setDescription(name);
+        product.setPrice(new BigDecimal(price));
+        product.setLicenced(licenced);
+        return productService.addProduct(product);
+    }
+
+    private void stock(Product product, ProductInventory.Size size, int quantity) {
+        ProductInventory inventory = new ProductInventory();
+        inventory.setProduct(product);
+        inventory.setSize(size);
+        inventory.setQuantity(quantity);
+        productInventoryRepository.save(inventory);
+    }
+}
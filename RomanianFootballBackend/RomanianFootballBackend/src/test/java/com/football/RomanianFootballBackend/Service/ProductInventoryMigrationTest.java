@@ -0,0 +1,98 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.Entity.Product;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductInventoryMigrationTest {
+
+    @Autowired
+    private ProductInventoryMigration productInventoryMigration;
+
+    @Autowired
+    private ProductInventoryService productInventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (1, 'Home Jersey', 200, 'Dinamo', TRUE)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void duplicateRowsOfASkuAreMergedIntoTheOldest() {
+        // A table from before the constraint
+        jdbcTemplate.execute("ALTER TABLE product_inventory DROP CONSTRAINT uk_product_inventory_sku");
+        try {
+            jdbcTemplate.update("INSERT INTO product_inventory (id, product_id, size, quantity, reserved) VALUES " +
+                    "(1, 1, 'M', 5, 1), (2, 1, 'L', 4, 0), (3, 1, 'M', 3, 2), (4, 1, 'M', 1, 0)");
+
+            productInventoryMigration.migrate();
+
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT id, size, quantity, reserved FROM product_inventory ORDER BY id");
+            assertEquals(2, rows.size());
+            assertRow(rows.get(0), 1, "M", 9, 3);
+            assertRow(rows.get(1), 2, "L", 4, 0);
+
+            // Nothing left to do
+            productInventoryMigration.migrate();
+            assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_inventory", Integer.class));
+        } finally {
+            TestDatabase.clear(jdbcTemplate);
+            jdbcTemplate.execute("ALTER TABLE product_inventory ADD CONSTRAINT uk_product_inventory_sku UNIQUE (product_id, size)");
+        }
+    }
+
+    @Test
+    void secondRowForASkuIsRejected() {
+        jdbcTemplate.update("INSERT INTO product_inventory (id, product_id, size, quantity) VALUES (1, 1, 'M', 5), (2, 1, 'L', 4)");
+        Product product = new Product();
+        product.setId(1);
+
+        assertThrows(IllegalArgumentException.class, () -> productInventoryService.addProductInventory(inventory(product, 2)));
+        ProductInventory resize = new ProductInventory();
+        resize.setSize(ProductInventory.Size.M);
+        assertThrows(IllegalArgumentException.class, () -> productInventoryService.updateProductInventory(2, resize));
+
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT quantity FROM product_inventory WHERE size = 'M'", Integer.class));
+        assertEquals(7, productInventoryService.updateProductInventory(1, inventory(null, 7)).getQuantity());
+    }
+
+    private static ProductInventory inventory(Product product, int quantity) {
+        ProductInventory inventory = new ProductInventory();
+        inventory.setProduct(product);
+        inventory.setSize(product == null ? null : ProductInventory.Size.M);
+        inventory.setQuantity(quantity);
+        return inventory;
+    }
+
+    private static void assertRow(Map<String, Object> row, int id, String size, int quantity, int reserved) {
+        assertEquals(id, ((Number) row.get("id")).intValue());
+        assertEquals(size, row.get("size"));
+        assertEquals(quantity, ((Number) row.get("quantity")).intValue());
+        assertEquals(reserved, ((Number) row.get("reserved")).intValue());
+    }
+}
@@ -0,0 +1,96 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Measures in-memory search latency over a catalog much larger than the shop's
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+class ProductSearchBenchmarkTest {
+
+    private static final int PRODUCTS = 5_000;
+    private static final int QUERIES = 2_000;
+
+    private static final String[] TEAMS = {"Barcelona", "Liverpool", "Manchester City", "Manchester United",
+            "Real Madrid", "Juventus", "Dinamo Bucuresti", "Rapid Bucuresti", "Steaua Bucuresti", "Universitatea Craiova",
+            "Bayern Munchen", "Borussia Dortmund", "Paris Saint Germain", "Internazionale", "Atletico Madrid"};
+    private static final String[] KINDS = {"Home", "Away", "Third", "Training", "Retro", "Goalkeeper"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            String team = TEAMS[i % TEAMS.length];
+            rows.add(new Object[]{team + " " + KINDS[i % KINDS.length] + " " + (2000 + i % 25) + " Edition" + i,
+                    team, "Jersey number " + i, 100 + i % 400, true});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO product (name, team, description, price, licenced) VALUES (?, ?, ?, ?, ?)", rows);
+        productSearchIndex.rebuild();
+    }
+
+    // Later tests delete through JPA, which would otherwise load every generated product
+    @AfterEach
+    void tearDown() {
+        TestDatabase.clear(jdbcTemplate);
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void fuzzySearchLatency(TestReporter reporter) {
+        String[] typos = {"barcellona", "liverpol", "manchaster city", "juventos", "dinammo", "stiaua bucuresti",
+                "borusia dortmund", "atletico madridd", "goalkeper", "trainin"};
+
+        long[] exact = measure(typos, false);
+        long[] fuzzy = measure(typos, true);
+
+        reporter.publishEntry("search over " + PRODUCTS + " products, " + QUERIES + " queries",
+                "exact p50 " + exact[0] + " us / p99 " + exact[1] + " us, fuzzy p50 " + fuzzy[0] + " us / p99 " + fuzzy[1] + " us");
+        for (String typo : typos) {
+            assertFalse(productSearchIndex.search(typo, 10, true).isEmpty(), typo);
+        }
+        // Generous bound so the check only trips on an algorithmic regression, not on a slow machine
+        assertTrue(fuzzy[1] < 50_000, "fuzzy p99 was " + fuzzy[1] + " us");
+    }
+
+    // Returns {p50, p99} in microseconds after a warm-up pass
+    private long[] measure(String[] queries, boolean fuzzy) {
+        Random random = new Random(42);
+        for (int i = 0; i < QUERIES; i++) {
+            productSearchIndex.search(queries[random.nextInt(queries.length)], 50, fuzzy);
+        }
+        long[] micros = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String query = queries[random.nextInt(queries.length)];
+            long start = System.nanoTime();
+            productSearchIndex.search(query, 50, fuzzy);
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(micros);
+        return new long[]{micros[QUERIES / 2], micros[QUERIES * 99 / 100]};
+    }
+}
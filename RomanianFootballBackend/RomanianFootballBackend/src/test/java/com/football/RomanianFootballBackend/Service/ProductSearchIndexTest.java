@@ -0,0 +1,96 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.Entity.Product;
+import com.football.RomanianFootballBackend.Repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSearchIndexTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void tokenizeFoldsRomanianDiacritics() {
+        assertEquals(List.of("steaua", "bucuresti", "tricou", "stiinta", "timisoara"),
+                ProductSearchIndex.tokenize("Steaua București — Tricou Ştiinţa Timişoara"));
+        assertEquals(List.of("ana", "si", "mama"), ProductSearchIndex.tokenize("Ână și Mâmă"));
+    }
+
+    @Test
+    void searchMatchesPrefixesAcrossFieldsAndRanksNameAboveDescription() {
+        Product dinamo = save("Dinamo București Home", "Dinamo București", "Tricou oficial");
+        Product rapid = save("Rapid Away", "Rapid București", "Inspired by Dinamo rivalry");
+        save("Barcelona Home", "Barcelona", "Camp Nou classic");
+
+        assertEquals(List.of(dinamo.getId(), rapid.getId()), productSearchIndex.search("dinamo", 10));
+        assertEquals(List.of(dinamo.getId(), rapid.getId()), productSearchIndex.search("bucur", 10));
+        assertEquals(List.of(rapid.getId()), productSearchIndex.search("rapid bucuresti", 10));
+        assertTrue(productSearchIndex.search("juventus", 10).isEmpty());
+    }
+
+    @Test
+    void fuzzySearchToleratesTyposInNamesAndTeams() {
+        Product barcelona = save("Barcelona Home", "Barcelona", "Camp Nou classic");
+        Product liverpool = save("Liverpool Home", "Liverpool", "Anfield");
+        Product city = save("Manchester City Away", "Manchester City", "Etihad");
+
+        assertTrue(productSearchIndex.search("barcellona", 10).isEmpty());
+        assertEquals(List.of(barcelona.getId()), productSearchIndex.search("Barcellona", 10, true));
+        assertEquals(List.of(liverpool.getId()), productSearchIndex.search("liverpol", 10, true));
+        assertEquals(List.of(city.getId()), productSearchIndex.search("Manchaster Citty", 10, true));
+        // Short tokens and descriptions are only matched exactly
+        assertTrue(productSearchIndex.search("cyti", 10, true).isEmpty());
+        assertTrue(productSearchIndex.search("anfeld", 10, true).isEmpty());
+        assertEquals(2, ProductSearchIndex.levenshtein("manchaster", "mancester"));
+    }
+
+    @Test
+    void indexFollowsCatalogMutations() {
+        Product product = save("Liverpool Home", "Liverpool", "Anfield");
+        assertEquals(List.of(product.getId()), productSearchIndex.search("liver", 10));
+
+        Product update = new Product();
+        update.setName("Arsenal Home");
+        update.setTeam("Arsenal");
+        productService.updateProduct(product.getId(), update);
+        assertTrue(productSearchIndex.search("liver", 10).isEmpty());
+        assertEquals(product.getId(), productService.getProductsByName("arsen").getFirst().getId());
+
+        productService.deleteProduct(product.getId());
+        assertTrue(productService.getProductsByName("arsen").isEmpty());
+    }
+
+    private Product save(String name, String team, String description) {
+        Product product = new Product();
+        product.setName(name);
+        product.setTeam(team);
+        product.setDescription(description);
+        product.setPrice(new BigDecimal("150.00"));
+        product.setLicenced(true);
+        return productService.addProduct(product);
+    }
+}
@@ -0,0 +1,236 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.ProductDTO;
+import com.football.RomanianFootballBackend.DTO.ProductFilterDTO;
+import com.football.RomanianFootballBackend.DTO.ProductPageDTO;
+import com.football.RomanianFootballBackend.Entity.Product;
+import com.football.RomanianFootballBackend.Entity.ProductPhotos;
+import com.football.RomanianFootballBackend.Repository.ProductPhotosRepository;
+import com.football.RomanianFootballBackend.Repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductPhotosRepository productPhotosRepository;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        productPhotosRepository.deleteAll();
+        productRepository.deleteAll();
+        productCatalogCache.onCatalogChanged(CatalogChangedEvent.all());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getAllProductsUsesOneStatementRegardlessOfCatalogSize() {
+        createProducts(3);
+        assertEquals(1, countStatements(() -> assertEquals(3, productService.getAllProducts().size())));
+
+        createProducts(40);
+        productCatalogCache.onCatalogChanged(CatalogChangedEvent.all());
+        assertEquals(1, countStatements(() -> assertEquals(43, productService.getAllProducts().size())));
+    }
+
+    @Test
+    void catalogReadsAreServedFromCacheUntilAnAdminMutation() {
+        createProducts(5);
+        productService.getAllProducts();
+        Integer id = productRepository.findAll().getFirst().getId();
+
+        assertEquals(0, countStatements(() -> productService.getAllProducts()));
+        assertEquals(0, countStatements(() -> productService.getProductDTOById(id)));
+
+        Product update = new Product();
+        update.setName("Renamed kit");
+        productService.updateProduct(id, update);
+
+        assertEquals("Renamed kit", productService.getProductDTOById(id).getName());
+        assertEquals("Renamed kit", find(productService.getAllProducts(), id).getName());
+    }
+
+    @Test
+    void getAllProductsPrefersPrimaryPhotoThenFirstPhoto() {
+        Product withPrimary = saveProduct("Primary");
+        savePhoto(withPrimary, "/images/a.jpg", false);
+        savePhoto(withPrimary, "C:\\photos\\b.jpg", true);
+
+        Product withoutPrimary = saveProduct("First");
+        savePhoto(withoutPrimary, "/images/c.jpg", false);
+        savePhoto(withoutPrimary, "/images/d.jpg", false);
+
+        Product withoutPhotos = saveProduct("None");
+
+        List<ProductDTO> products = productService.getAllProducts();
+
+        assertEquals("/images/b.jpg", find(products, withPrimary.getId()).getPhotoUrl());
+        assertEquals("/images/c.jpg", find(products, withoutPrimary.getId()).getPhotoUrl());
+        assertNull(find(products, withoutPhotos.getId()).getPhotoUrl());
+    }
+
+    @Test
+    void productPagesWalkTheCatalogOnceInSortOrder() {
+        createProducts(7);
+        List<Product> products = productRepository.findAll();
+        // Duplicate prices force the id tie-breaker to be used across page boundaries
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setPrice(BigDecimal.valueOf(100 + (i % 3)));
+        }
+        productRepository.saveAll(products);
+
+        List<Integer> expected = products.stream()
+                .sorted(Comparator.comparing(Product::getPrice).thenComparing(Product::getId))
+                .map(Product::getId)
+                .toList();
+
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductPageDTO page = productService.getProductPage(cursor, 3, "price");
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void productPagesIncludeRowsWithoutASortValue() {
+        createProducts(5);
+        List<Product> products = productRepository.findAll();
+        // Three rows without a price or name, so a page boundary falls among them and one between them and the rest
+        for (int i = 0; i < 3; i++) {
+            products.get(i).setPrice(null);
+            products.get(i).setName(null);
+        }
+        productRepository.saveAll(products);
+        List<Integer> ids = products.stream().map(Product::getId).sorted().toList();
+
+        assertEquals(ids, walk("price"));
+        assertEquals(ids, walk("name"));
+    }
+
+    @Test
+    void productPageRejectsCursorFromAnotherSort() {
+        createProducts(3);
+        String cursor = productService.getProductPage(null, 1, "id").getNextCursor();
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductPage(cursor, 1, "name"));
+    }
+
+    @Test
+    void filterPagesAreResolvedFromTheCachedCatalog() {
+        createProducts(7);
+        productFacetIndex.onCatalogChanged(CatalogChangedEvent.all());
+        productService.filterProducts(Map.of(), 0, 100);
+
+        List<Integer> seen = new ArrayList<>();
+        long statements = countStatements(() -> {
+            for (int offset = 0; offset < 7; offset += 3) {
+                ProductFilterDTO page = productService.filterProducts(Map.of(), offset, 3);
+                assertEquals(7, page.getTotal());
+                page.getProducts().forEach(product -> seen.add(product.getId()));
+            }
+        });
+
+        assertEquals(0, statements);
+        assertEquals(productRepository.findAll().stream().map(Product::getId).sorted().toList(), seen.stream().sorted().toList());
+    }
+
+    @Test
+    void searchHitsAreResolvedFromTheCachedCatalog() {
+        createProducts(60);
+        productSearchIndex.onCatalogChanged(CatalogChangedEvent.all());
+        productService.getProductsByName("kit");
+
+        List<ProductDTO> hits = new ArrayList<>();
+        assertEquals(0, countStatements(() -> hits.addAll(productService.getProductsByName("kit"))));
+        assertEquals(50, hits.size());
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Integer> walk(String sort) {
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductPageDTO page = productService.getProductPage(cursor, 2, sort);
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+
+    private void createProducts(int count) {
+        for (int i = 0; i < count; i++) {
+            Product product = saveProduct("Kit " + i);
+            savePhoto(product, "/images/kit_" + i + "_1.jpg", false);
+            savePhoto(product, "/images/kit_" + i + "_2.jpg", true);
+        }
+    }
+
+    private Product saveProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription("Home kit");
+        product.setPrice(new BigDecimal("199.99"));
+        product.setTeam("Team " + name);
+        product.setLicenced(true);
+        return productRepository.save(product);
+    }
+
+    private void savePhoto(Product product, String url, boolean primary) {
+        ProductPhotos photo = new ProductPhotos();
+        photo.setProduct(product);
+        photo.setPhotoUrl(url);
+        photo.setIsPrimary(primary);
+        photo.setDisplayOrder(1);
+        productPhotosRepository.save(photo);
+    }
+
+    private ProductDTO find(List<ProductDTO> products, Integer id) {
+        return products.stream().filter(p -> p.getId().equals(id)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,120 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.Entity.OrderItems;
+import com.football.RomanianFootballBackend.Entity.Orders;
+import com.football.RomanianFootballBackend.Entity.Product;
+import com.football.RomanianFootballBackend.Entity.ProductInventory;
+import com.football.RomanianFootballBackend.Entity.User;
+import com.football.RomanianFootballBackend.Repository.OrderItemsRepository;
+import com.football.RomanianFootballBackend.Repository.OrdersRepository;
+import com.football.RomanianFootballBackend.Repository.UserRepository;
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSuggestTrieTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSuggestTrie productSuggestTrie;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrdersRepository ordersRepository;
+
+    @Autowired
+    private OrderItemsRepository orderItemsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        productSuggestTrie.rebuild();
+    }
+
+    @Test
+    void suggestsProductsAndTeamsFromAnyWordStartOrderedByPopularity() {
+        Product home = save("Manchester City Home", "Manchester City");
+        Product away = save("Manchester City Away", "Manchester City");
+        save("Manchester United Home", "Manchester United");
+        sell(away, 7);
+        sell(home, 2);
+        productSuggestTrie.rebuild();
+
+        List<ProductSuggestTrie.Suggestion> suggestions = productService.suggest("man", 3);
+        assertEquals(List.of("Manchester City", "Manchester City Away", "Manchester City Home"),
+                suggestions.stream().map(ProductSuggestTrie.Suggestion::text).toList());
+        assertEquals("TEAM", suggestions.getFirst().type());
+        assertEquals(away.getId(), suggestions.get(1).productId());
+
+        assertEquals("Manchester City", productService.suggest("cit", 1).getFirst().text());
+        assertEquals("Manchester United Home", productService.suggest("Manchester U", 5).getLast().text());
+        assertEquals(List.of(), productService.suggest("man", -1));
+    }
+
+    @Test
+    void trieFollowsCatalogMutations() {
+        Product product = save("Steaua București Home", "Steaua București");
+        assertEquals(2, productService.suggest("bucuresti", 5).size());
+
+        Product update = new Product();
+        update.setName("FCSB Home");
+        update.setTeam("FCSB");
+        productService.updateProduct(product.getId(), update);
+        assertTrue(productService.suggest("steaua", 5).isEmpty());
+        assertEquals(List.of("FCSB", "FCSB Home"),
+                productService.suggest("fcsb", 5).stream().map(ProductSuggestTrie.Suggestion::text).toList());
+
+        productService.deleteProduct(product.getId());
+        assertTrue(productService.suggest("fcsb", 5).isEmpty());
+    }
+
+    private Product save(String name, String team) {
+        Product product = new Product();
+        product.setName(name);
+        product.setTeam(team);
+        product.setPrice(new BigDecimal("120.00"));
+        product.setLicenced(true);
+        return productService.addProduct(product);
+    }
+
+    private void sell(Product product, int quantity) {
+        User user = new User();
+        user.setEmail("buyer" + product.getId() + "@test.ro");
+        user.setPassword("secret");
+        user.setRole(User.Role.USER);
+        user = userRepository.save(user);
+
+        Orders order = new Orders();
+        order.setUser(user);
+        order.setStatus(Orders.OrderStatus.COMPLETED);
+        order.setTotalPrice(product.getPrice());
+        order = ordersRepository.save(order);
+
+        OrderItems item = new OrderItems();
+        item.setOrders(order);
+        item.setProduct(product);
+        item.setSize(ProductInventory.Size.M);
+        item.setQuantity(quantity);
+        item.setPrice(product.getPrice());
+        orderItemsRepository.save(item);
+    }
+}
@@ -0,0 +1,62 @@
+package com.football.RomanianFootballBackend.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void everyEntryExpiresExactlyOnItsTickAcrossAllLevels() {
+        long start = 1_000_003;
+        TimingWheel wheel = new TimingWheel(start);
+        Random random = new Random(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long id = 0; id < 20_000; id++) {
+            // Spread over all four levels, with some scheduled mid-way through the run
+            long deadline = start + 1 + (long) Math.pow(random.nextDouble(), 3) * 300_000;
+            deadlines.put(id, deadline);
+            wheel.schedule(id, deadline);
+        }
+        assertEquals(deadlines.size(), wheel.size());
+
+        int expired = 0;
+        for (long tick = start + 1; tick <= start + 300_001; tick++) {
+            if (tick == start + 70_000) {
+                deadlines.put(-1L, tick + 5_000);
+                wheel.schedule(-1L, tick + 5_000);
+            }
+            for (long id : wheel.advanceTo(tick)) {
+                assertEquals(deadlines.get(id), tick, "entry " + id);
+                expired++;
+            }
+        }
+        assertEquals(deadlines.size(), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextTickAndFarOnesAreNotLost() {
+        TimingWheel wheel = new TimingWheel(500);
+        wheel.schedule(1, 10);
+        long far = 500 + (1L << 24) + 12_345;
+        wheel.schedule(2, far);
+
+        assertArrayEquals(new long[]{1}, wheel.advanceTo(501));
+
+        List<Long> early = new ArrayList<>();
+        for (long id : wheel.advanceTo(far - 1)) {
+            early.add(id);
+        }
+        assertTrue(early.isEmpty());
+        assertArrayEquals(new long[]{2}, wheel.advanceTo(far));
+    }
+}
@@ -0,0 +1,231 @@
+package com.football.RomanianFootballBackend.Service;
+
+import com.football.RomanianFootballBackend.DTO.AddToCartDTO;
+import com.football.RomanianFootballBackend.DTO.CartBatchDTO.CartOperationDTO;
+import com.football.RomanianFootballBackend.DTO.CartItemDTO;
+import com.football.RomanianFootballBackend.DTO.CreateOrderDTO;
+import com.football.RomanianFootballBackend.Entity.Orders;
+import com.football.RomanianFootballBackend.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The scheduled flush is pushed out of the way; the tests flush when they mean to
+@SpringBootTest(properties = {"cart.store=memory", "cart.store.max-carts=2", "cart.store.flush-ms=3600000"})
+@ActiveProfiles("test")
+class WriteBehindCartStoreTest {
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private WriteBehindCartStore store;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        store = (WriteBehindCartStore) cartStore;
+        jdbcTemplate.update("INSERT INTO product (id, name, price, team, licenced) VALUES (1, 'Home Jersey', 200, 'Dinamo', TRUE)");
+        jdbcTemplate.update("INSERT INTO product_inventory (product_id, size, quantity) VALUES (1, 'M', 50)");
+        for (int id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO user (id, email, password, role) VALUES (?, ?, 'x', 'USER')", id, "fan" + id + "@example.com");
+            jdbcTemplate.update("INSERT INTO cart (id, user_id, total_price) VALUES (?, ?, 0)", id, id);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (int id = 1; id <= 3; id++) {
+            cartStore.detach(id);
+        }
+        TestDatabase.clear(jdbcTemplate);
+    }
+
+    @Test
+    void clicksWriteNothingUntilTheFlush() {
+        CartItemDTO first = cartStore.add(add(1, 1, null));
+        cartStore.add(add(1, 2, null));
+        CartItemDTO other = cartStore.add(add(1, 1, "Hagi"));
+        CartService.CartContents cart = cartStore.apply(1, List.of(
+                operation(CartOperationDTO.Type.UPDATE, first.getId(), 4),
+                operation(CartOperationDTO.Type.REMOVE, other.getId(), null)));
+
+        assertTrue(first.getId() < 0);
+        assertEquals(1, cart.items().size());
+        assertEquals(0, cart.totalPrice().compareTo(new BigDecimal("800")));
+        assertEquals(4, cartStore.getItemsByUserId(1).get(0).getQuantity());
+        assertEquals(0, lines(1));
+        assertEquals(0, total(1).compareTo(BigDecimal.ZERO));
+
+        store.flush();
+
+        assertEquals(0, store.dirtyCarts());
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT quantity FROM cart_items WHERE cart_id = 1", Integer.class));
+        assertEquals(0, total(1).compareTo(new BigDecimal("800")));
+
+        // The line answers to its temporary id and to its row id alike
+        Integer rowId = jdbcTemplate.queryForObject("SELECT id FROM cart_items WHERE cart_id = 1", Integer.class);
+        cartStore.apply(1, List.of(operation(CartOperationDTO.Type.UPDATE, rowId, 2)));
+        cartStore.apply(1, List.of(operation(CartOperationDTO.Type.UPDATE, first.getId(), 3)));
+        store.flush();
+        assertEquals(1, lines(1));
+        assertEquals(0, total(1).compareTo(new BigDecimal("600")));
+    }
+
+    @Test
+    void invalidOperationLeavesTheCartAsItWas() {
+        CartItemDTO line = cartStore.add(add(1, 1, null));
+
+        assertThrows(RuntimeException.class, () -> cartStore.apply(1, List.of(
+                operation(CartOperationDTO.Type.UPDATE, line.getId(), 5),
+                operation(CartOperationDTO.Type.REMOVE, 12345, null))));
+
+        assertEquals(1, cartStore.getItemsByUserId(1).get(0).getQuantity());
+    }
+
+    @Test
+    void checkoutSeesTheLinesStillInMemory() {
+        cartStore.add(add(1, 3, null));
+
+        cartStore.detachByUserId(1);
+        Orders order = ordersService.createOrder(order(1));
+
+        assertEquals(0, order.getTotalPrice().compareTo(new BigDecimal("600")));
+        assertEquals(0, lines(1));
+        assertEquals(47, jdbcTemplate.queryForObject("SELECT quantity FROM product_inventory WHERE product_id = 1", Integer.class));
+        assertEquals(List.of(), cartStore.getItemsByUserId(1));
+    }
+
+    @Test
+    void leastRecentlyUsedCartIsWrittenOutWhenTooManyAreLive() {
+        cartStore.add(add(1, 1, null));
+        cartStore.add(add(2, 1, null));
+        // Cart 1 was used last, so cart 2 is the one spilled
+        cartStore.add(add(1, 1, null));
+        cartStore.add(add(3, 1, null));
+
+        assertEquals(2, store.liveCarts());
+        assertEquals(1, lines(2));
+        assertEquals(0, total(2).compareTo(new BigDecimal("200")));
+        assertEquals(0, lines(1));
+
+        // Loaded back from the table on its next change
+        cartStore.add(add(2, 1, null));
+        assertEquals(2, cartStore.getItemsByUserId(2).get(0).getQuantity());
+    }
+
+    @Test
+    void livePricesFollowAPriceChange() {
+        cartStore.add(add(1, 2, null));
+
+        store.onPriceChanged(new ProductPriceChangedEvent(1, new BigDecimal("150")));
+        store.flush();
+
+        assertEquals(0, cartStore.getItemsByUserId(1).get(0).getPrice().compareTo(new BigDecimal("300")));
+        assertEquals(0, total(1).compareTo(new BigDecimal("300")));
+    }
+
+    @Test
+    void holdLeftFromTheDatabaseStoreIsGivenBackOnLoad() {
+        jdbcTemplate.update("UPDATE product_inventory SET reserved = 2 WHERE product_id = 1");
+        jdbcTemplate.update("INSERT INTO cart_items (cart_id, product_id, size, player, number, quantity, price, held_until) " +
+                "VALUES (1, 1, 'M', '', '', 2, 400, ?)", Timestamp.from(Instant.now().plusSeconds(900)));
+        Integer rowId = jdbcTemplate.queryForObject("SELECT id FROM cart_items WHERE cart_id = 1", Integer.class);
+
+        cartStore.apply(1, List.of(operation(CartOperationDTO.Type.UPDATE, rowId, 5)));
+
+        assertEquals(0, reserved());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE held_until IS NOT NULL", Integer.class));
+
+        // Removing the line later does not give the units back a second time
+        cartStore.apply(1, List.of(operation(CartOperationDTO.Type.REMOVE, rowId, null)));
+        store.flush();
+        assertEquals(0, lines(1));
+        assertEquals(0, reserved());
+    }
+
+    @Test
+    void lineWhoseRowWasPurgedIsWrittenAgain() {
+        CartItemDTO line = cartStore.add(add(1, 1, null));
+        store.flush();
+        jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id = 1");
+
+        cartStore.apply(1, List.of(operation(CartOperationDTO.Type.UPDATE, line.getId(), 3)));
+        store.flush();
+
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT quantity FROM cart_items WHERE cart_id = 1", Integer.class));
+        assertEquals(0, total(1).compareTo(new BigDecimal("600")));
+        assertEquals(0, store.dirtyCarts());
+    }
+
+    @Test
+    void cartThatCannotBeWrittenIsLetGo() {
+        cartStore.add(add(1, 1, null));
+        jdbcTemplate.update("DELETE FROM cart WHERE id = 1");
+
+        for (int i = 1; i < WriteBehindCartStore.MAX_WRITE_FAILURES; i++) {
+            store.flush();
+            assertEquals(1, store.dirtyCarts());
+        }
+        store.flush();
+
+        assertEquals(0, store.dirtyCarts());
+        assertEquals(0, store.liveCarts());
+        assertEquals(0, lines(1));
+    }
+
+    private int reserved() {
+        return jdbcTemplate.queryForObject("SELECT reserved FROM product_inventory WHERE product_id = 1", Integer.class);
+    }
+
+    private int lines(int cartId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE cart_id = ?", Integer.class, cartId);
+    }
+
+    private BigDecimal total(int cartId) {
+        return jdbcTemplate.queryForObject("SELECT total_price FROM cart WHERE id = ?", BigDecimal.class, cartId);
+    }
+
+    private static CartOperationDTO operation(CartOperationDTO.Type type, Integer itemId, Integer quantity) {
+        CartOperationDTO operation = new CartOperationDTO();
+        operation.setType(type);
+        operation.setItemId(itemId);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+
+    private static AddToCartDTO add(int cartId, int quantity, String player) {
+        AddToCartDTO add = new AddToCartDTO();
+        add.setPlayer(player);
+        add.setCartId(cartId);
+        add.setProductId(1);
+        add.setSize("M");
+        add.setQuantity(quantity);
+        return add;
+    }
+
+    private static CreateOrderDTO order(int userId) {
+        CreateOrderDTO order = new CreateOrderDTO();
+        order.setUserId(userId);
+        order.setCity("Bucuresti");
+        return order;
+    }
+}
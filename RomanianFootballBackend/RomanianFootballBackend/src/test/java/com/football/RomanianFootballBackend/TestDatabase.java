@@ -0,0 +1,20 @@
+package com.football.RomanianFootballBackend;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+// Wipes every table of the in-memory test database between tests
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    public static void clear(JdbcTemplate jdbcTemplate) {
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.tables WHERE table_schema = 'public'", String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        tables.forEach(table -> jdbcTemplate.execute("TRUNCATE TABLE \"" + table + "\" RESTART IDENTITY"));
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+}
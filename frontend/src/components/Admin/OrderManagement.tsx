@@ -32,6 +32,7 @@ import {
 } from '@mui/material';
 import {useAuth} from '../../utils/AuthContext';
 import {useNavigate} from 'react-router-dom';
+import {subscribeAdminEvents} from '../../utils/api';
 import VisibilityIcon from '@mui/icons-material/Visibility';
 import EditIcon from '@mui/icons-material/Edit';
 import ArrowBackIcon from '@mui/icons-material/ArrowBack';
@@ -70,6 +71,11 @@ interface Order {
     orderItems?: OrderItem[];
 }
 
+interface OrderChange {
+    orderId: number;
+    order: Order | null;
+}
+
 interface SnackbarState {
     open: boolean;
     message: string;
@@ -111,6 +117,25 @@ const OrderManagement: React.FC = () => {
         fetchOrders();
     }, [user, navigate]);
 
+    // New, updated and removed orders arrive one at a time instead of a reload of every order
+    useEffect(() => {
+        if (!user || user.role !== 'ADMIN') {
+            return;
+        }
+        return subscribeAdminEvents({
+            order: (change: OrderChange) => {
+                setOrders(prev => {
+                    const others = prev.filter(order => order.id !== change.orderId);
+                    if (!change.order || change.order.status !== 'PENDING') {
+                        return others;
+                    }
+                    return [...others, change.order].sort((a, b) => a.id - b.id);
+                });
+            },
+            reset: () => fetchOrders(),
+        });
+    }, [user]);
+
     const showSnackbar = (message: string, severity: AlertColor): void => {
         setSnackbar({open: true, message, severity});
     };
@@ -151,7 +176,6 @@ const OrderManagement: React.FC = () => {
 
             if (response.ok) {
                 showSnackbar(`Order ${orderId} marked as ${newStatus.toLowerCase()}`, 'success');
-                fetchOrders(); // Refresh the orders list
                 handleCloseDialog(); // Close dialog if open
             } else {
                 throw new Error('Failed to update order status');
@@ -302,7 +326,6 @@ const OrderManagement: React.FC = () => {
 
             if (response.ok) {
                 showSnackbar('Delivery address updated successfully', 'success');
-                fetchOrders();
                 handleCloseAddressDialog();
             } else {
                 const errorText = await response.text();
@@ -1,4 +1,4 @@
-import React, {useState, useEffect} from 'react';
+import React, {useState, useEffect, useRef} from 'react';
 import {
     Container,
     Typography,
@@ -45,6 +45,7 @@ import SportsSoccerIcon from '@mui/icons-material/SportsSoccer';
 import TrendingUpIcon from '@mui/icons-material/TrendingUp';
 import {useAuth} from '../../utils/AuthContext';
 import {useNavigate} from 'react-router-dom';
+import {subscribeAdminEvents} from '../../utils/api';
 
 interface Product {
     id: number;
@@ -59,6 +60,11 @@ interface ProductInventory {
     quantity: number;
 }
 
+interface InventoryChange {
+    productId: number;
+    rows: { id: number; size: ProductInventory['size']; quantity: number }[];
+}
+
 interface FormData {
     productId: string;
     size: 'S' | 'M' | 'L' | 'XL' | 'XXL';
@@ -94,6 +100,32 @@ const StockManagement: React.FC = () => {
         fetchProducts();
     }, [user, navigate]);
 
+    const productsRef = useRef<Product[]>([]);
+    useEffect(() => {
+        productsRef.current = products;
+    }, [products]);
+
+    // Edits (ours and other admins') and checkouts arrive as per-product deltas instead of a table reload
+    useEffect(() => {
+        if (!user || user.role !== 'ADMIN') {
+            return;
+        }
+        return subscribeAdminEvents({
+            inventory: (change: InventoryChange) => {
+                setInventory(prev => {
+                    const product = prev.find(item => item.product.id === change.productId)?.product
+                        ?? productsRef.current.find(p => p.id === change.productId)
+                        ?? {id: change.productId, name: `#${change.productId}`, price: 0};
+                    return prev
+                        .filter(item => item.product.id !== change.productId)
+                        .concat(change.rows.map(row => ({...row, product})))
+                        .sort((a, b) => a.id - b.id);
+                });
+            },
+            reset: () => fetchInventory(),
+        });
+    }, [user]);
+
     const fetchInventory = async () => {
         try {
             const response = await fetch('http://localhost:8080/api/productInventory', {
@@ -228,7 +260,6 @@ const StockManagement: React.FC = () => {
 
             if (response.ok) {
                 showSnackbar(`Stock ${isEditing ? 'updated' : 'added'} successfully`, 'success');
-                fetchInventory();
                 handleCloseDialog();
             } else {
                 throw new Error('Operation failed');
@@ -249,7 +280,6 @@ const StockManagement: React.FC = () => {
 
             if (response.ok) {
                 showSnackbar('Stock deleted successfully', 'success');
-                fetchInventory();
             } else {
                 throw new Error('Failed to delete inventory');
             }
@@ -214,41 +214,17 @@ const ProductDetail: React.FC = () => {
         const fetchProductData = async () => {
             try {
                 setLoading(true);
-                // Fetch product details
-                const productResponse = await fetch(`http://localhost:8080/api/product/${id}`);
-                if (!productResponse.ok) throw new Error('Failed to fetch product');
-                const productData = await productResponse.json();
-                setProduct(productData);
-
-                // Fetch product photos
-                const photosResponse = await fetch(`http://localhost:8080/api/productPhotos/${id}`);
-                if (!photosResponse.ok) throw new Error('Failed to fetch photos');
-                const photosData = await photosResponse.json();
-                setPhotos(photosData);
-
-                // Fetch inventory/sizes
-                const inventoryResponse = await fetch(`http://localhost:8080/api/productInventory/product/${id}`);
-                if (!inventoryResponse.ok) throw new Error('Failed to fetch inventory');
-                const inventoryData = await inventoryResponse.json();
-                // Filter only sizes with quantity > 0
-                const availableSizes = inventoryData
-                    .filter((item: ProductSize) => item.quantity > 0)
-                    .sort((a: ProductSize, b: ProductSize) => {
-                        const sizeOrder = {'S': 1, 'M': 2, 'L': 3, 'XL': 4, 'XXL': 5};
-                        return sizeOrder[a.size as keyof typeof sizeOrder] - sizeOrder[b.size as keyof typeof sizeOrder];
-                    });
-                setAvailableSizes(availableSizes);
-
+                // Product, photos, in-stock sizes and wishlist status in a single request
+                const detailResponse = await fetch(`http://localhost:8080/api/product/${id}/detail`, {
+                    credentials: 'include'
+                });
+                if (!detailResponse.ok) throw new Error('Failed to fetch product');
+                const detailData = await detailResponse.json();
+                setProduct(detailData.product);
+                setPhotos(detailData.photos);
+                setAvailableSizes(detailData.sizes);
                 if (user) {
-                    // Check wishlist status after product is fetched
-                    const wishlistResponse = await fetch(`http://localhost:8080/api/wishlist/user/${user.id}/check/${productData.id}`, {
-                        credentials: 'include'
-                    });
-
-                    if (wishlistResponse.ok) {
-                        const data = await wishlistResponse.json();
-                        setIsInWishlist(data.inWishlist);
-                    }
+                    setIsInWishlist(Boolean(detailData.inWishlist));
                 }
 
             } catch (err) {
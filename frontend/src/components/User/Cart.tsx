@@ -1,4 +1,4 @@
-import React, {useState, useEffect, useCallback} from 'react';
+import React, {useState, useEffect, useCallback, useRef} from 'react';
 import {useNavigate} from 'react-router-dom';
 import {useAuth} from '../../utils/AuthContext';
 import {
@@ -41,25 +41,43 @@ interface CartItemDTO {
     price: number;
 }
 
+interface CartOperation {
+    type: 'UPDATE' | 'REMOVE';
+    itemId: number;
+    quantity?: number;
+}
+
+const BATCH_DELAY_MS = 400;
+
 const Cart: React.FC = () => {
     const navigate = useNavigate();
     const {user} = useAuth();
     const [cartItems, setCartItems] = useState<CartItemDTO[]>([]);
     const [loading, setLoading] = useState(true);
+    const cartId = useRef<number | null>(null);
+    const pendingOps = useRef(new Map<number, CartOperation>());
+    const flushTimer = useRef<number | null>(null);
+    const inFlight = useRef<Promise<void> | null>(null);
 
     const MAX_QUANTITY = 10;
     const MIN_QUANTITY = 1;
 
     const fetchCartItems = useCallback(async () => {
         try {
-            const response = await fetch(`http://localhost:8080/api/cart/user/${user?.id}/items`, {
-                credentials: 'include'
-            });
+            const [cartResponse, response] = await Promise.all([
+                fetch(`http://localhost:8080/api/cart/user/${user?.id}`, {
+                    credentials: 'include'
+                }),
+                fetch(`http://localhost:8080/api/cart/user/${user?.id}/items`, {
+                    credentials: 'include'
+                })
+            ]);
 
-            if (!response.ok) {
+            if (!cartResponse.ok || !response.ok) {
                 throw new Error('Failed to fetch cart items');
             }
 
+            cartId.current = (await cartResponse.json()).id;
             const data = await response.json();
             setCartItems(data);
         } catch (error) {
@@ -77,55 +95,98 @@ const Cart: React.FC = () => {
         fetchCartItems();
     }, [user, navigate, fetchCartItems]);
 
-    const updateQuantity = async (itemId: number, newQuantity: number) => {
-        if (newQuantity < MIN_QUANTITY || newQuantity > MAX_QUANTITY) return;
-
+    const sendBatch = useCallback(async (operations: CartOperation[]) => {
         try {
-            const response = await fetch(`http://localhost:8080/api/cartItems/${itemId}`, {
-                method: 'PUT',
+            const response = await fetch(`http://localhost:8080/api/cart/${cartId.current}/batch`, {
+                method: 'POST',
                 headers: {
                     'Content-Type': 'application/json',
                 },
                 credentials: 'include',
-                body: JSON.stringify({quantity: newQuantity})
+                body: JSON.stringify({operations})
             });
 
             if (!response.ok) {
-                throw new Error('Failed to update quantity');
+                throw new Error('Failed to update cart');
             }
 
-            setCartItems(prevItems =>
-                prevItems.map(item =>
-                    item.id === itemId
-                        ? {...item, quantity: newQuantity}
-                        : item
-                )
-            );
+            const data: {items: CartItemDTO[]} = await response.json();
+            // Later clicks are already shown locally; their own reply brings the cart up to date
+            if (pendingOps.current.size === 0) {
+                setCartItems(data.items);
+            }
         } catch (error) {
-            console.error('Error updating quantity:', error);
+            console.error('Error updating cart:', error);
             await fetchCartItems();
         }
-    };
+    }, [fetchCartItems]);
 
-    const removeItem = async (itemId: number) => {
-        try {
-            const response = await fetch(`http://localhost:8080/api/cartItems/${itemId}`, {
-                method: 'DELETE',
-                credentials: 'include',
-                headers: {
-                    'Content-Type': 'application/json'
-                }
-            });
+    // Clicks are applied locally right away and sent together once they pause, as one batch request.
+    // Resolves once every batch sent so far has been answered, including one that was already on its way.
+    const flushPendingOps = useCallback((): Promise<void> => {
+        flushTimer.current = null;
+        if (cartId.current === null || pendingOps.current.size === 0) {
+            return inFlight.current ?? Promise.resolve();
+        }
+        const operations = Array.from(pendingOps.current.values());
+        pendingOps.current.clear();
 
-            if (!response.ok) {
-                throw new Error('Failed to remove item');
+        // Batches go out one after another, so the server applies them in click order
+        const previous = inFlight.current;
+        const request = (async () => {
+            await previous;
+            await sendBatch(operations);
+        })();
+        inFlight.current = request;
+        request.finally(() => {
+            if (inFlight.current === request) {
+                inFlight.current = null;
             }
+        });
+        return request;
+    }, [sendBatch]);
 
-            setCartItems(prevItems => prevItems.filter(item => item.id !== itemId));
-        } catch (error) {
-            console.error('Error removing item:', error);
-            await fetchCartItems();
+    const queueOp = (op: CartOperation) => {
+        // Only the last change to a line matters
+        pendingOps.current.set(op.itemId, op);
+        if (flushTimer.current !== null) {
+            window.clearTimeout(flushTimer.current);
+        }
+        flushTimer.current = window.setTimeout(flushPendingOps, BATCH_DELAY_MS);
+    };
+
+    useEffect(() => () => {
+        if (flushTimer.current !== null) {
+            window.clearTimeout(flushTimer.current);
+            flushPendingOps();
+        }
+    }, [flushPendingOps]);
+
+    const updateQuantity = (itemId: number, newQuantity: number) => {
+        if (newQuantity < MIN_QUANTITY || newQuantity > MAX_QUANTITY) return;
+
+        setCartItems(prevItems =>
+            prevItems.map(item =>
+                item.id === itemId
+                    ? {...item, quantity: newQuantity}
+                    : item
+            )
+        );
+        queueOp({type: 'UPDATE', itemId, quantity: newQuantity});
+    };
+
+    // Checkout reads the cart from the server, so queued changes go out first and batches already sent are answered
+    const goToCheckout = async () => {
+        if (flushTimer.current !== null) {
+            window.clearTimeout(flushTimer.current);
         }
+        await flushPendingOps();
+        navigate('/checkout');
+    };
+
+    const removeItem = (itemId: number) => {
+        setCartItems(prevItems => prevItems.filter(item => item.id !== itemId));
+        queueOp({type: 'REMOVE', itemId});
     };
 
     const subtotal = cartItems.reduce((sum, item) =>
@@ -383,7 +444,7 @@ const Cart: React.FC = () => {
                                         <Button
                                             variant="contained"
                                             fullWidth
-                                            onClick={() => navigate('/checkout')}
+                                            onClick={goToCheckout}
                                             sx={{
                                                 background: 'linear-gradient(45deg, #1976d2 30%, #2196f3 90%)',
                                                 color: 'white',
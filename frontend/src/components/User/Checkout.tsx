@@ -214,6 +214,17 @@ const Checkout = () => {
                 body: JSON.stringify(orderData)
             });
 
+            if (response.status === 409) {
+                // Someone else bought the last pieces; tell the user which lines are short
+                const conflict = await response.json();
+                const lines = conflict.shortages
+                    .map((s: { productName: string; size: string; available: number }) =>
+                        `${s.productName} (${s.size}): only ${s.available} left`)
+                    .join('\n');
+                alert(`Some items are no longer in stock:\n${lines}`);
+                return;
+            }
+
             if (!response.ok) {
                 const errorData = await response.text();
                 console.error("Order creation failed:", errorData);
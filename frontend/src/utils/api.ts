@@ -115,4 +115,17 @@ const deleteUser = async (id: number) => {
         }
     }
 };
-*/
\ No newline at end of file
+*/
+// Live admin change feed (server-sent events). The browser reconnects on its own and resumes from the last
+// event it saw; a 'reset' event means changes were missed and the screen should reload its data.
+export type AdminEventHandlers = {
+    [eventName: string]: (data: any) => void;
+};
+
+export const subscribeAdminEvents = (handlers: AdminEventHandlers): (() => void) => {
+    const source = new EventSource(`${API_BASE_URL}/admin/events`, { withCredentials: true });
+    Object.entries(handlers).forEach(([eventName, handler]) => {
+        source.addEventListener(eventName, (event) => handler(JSON.parse((event as MessageEvent).data)));
+    });
+    return () => source.close();
+};